@@ -0,0 +1,41 @@
+package genuary._2025.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import genuary._2025.parameters.Parameters;
+import genuary._2025.save.SaveUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Default parameters with a few of them changed, by json name (e.g. "CHAIKIN_DEPTH")
+ */
+final class BenchmarkParameters {
+    private static final ObjectMapper OBJECT_MAPPER = SaveUtil.objectMapper();
+
+    private BenchmarkParameters() {
+    }
+
+    static Parameters parameters(Map<String, Object> values) {
+        ObjectNode tree = OBJECT_MAPPER.valueToTree(Parameters.DEFAULT);
+        values.forEach((name, value) -> tree.set(name, OBJECT_MAPPER.valueToTree(value)));
+        try {
+            return OBJECT_MAPPER.treeToValue(tree, Parameters.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Parameters of a square canvas, the margin being scaled with it
+     */
+    static Parameters canvas(int size, Map<String, Object> values) {
+        Map<String, Object> canvas = new HashMap<>(values);
+        canvas.put("WIDTH", size);
+        canvas.put("HEIGHT", size);
+        canvas.put("MARGIN", Parameters.DEFAULT.margin() * size / Parameters.DEFAULT.width());
+        return parameters(canvas);
+    }
+}
@@ -0,0 +1,106 @@
+package genuary._2025.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks with the allocation profiler, saves their results as json, and compares
+ * them to a baseline saved the same way by a previous version.
+ * <p>
+ * Usage (after mvn -P jmh package):
+ * java -cp target/benchmarks.jar genuary._2025.benchmark.BenchmarkRunner result.json [baseline.json [jmh options]]
+ * <p>
+ * e.g. with benchmarks/baseline.json as baseline, and "-p canvasSize=1024 RenderBenchmark" as jmh
+ * options to run a subset. Each benchmark is printed with its score and normalized allocation rate,
+ * and their ratios to the baseline.
+ */
+public class BenchmarkRunner {
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: BenchmarkRunner result.json [baseline.json [jmh options]]");
+            return;
+        }
+        String resultFile = args[0];
+        String baselineFile = args.length > 1 ? args[1] : null;
+        String[] jmhArguments = args.length > 2 ? Arrays.copyOfRange(args, 2, args.length) : new String[0];
+
+        Path resultDirectory = Path.of(resultFile).toAbsolutePath().getParent();
+        if (resultDirectory != null) {
+            Files.createDirectories(resultDirectory);
+        }
+
+        CommandLineOptions commandLineOptions = new CommandLineOptions(jmhArguments);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile);
+        // all the benchmarks, unless the jmh options select some of them
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+        }
+        new Runner(options.build()).run();
+
+        if (baselineFile != null) {
+            compare(baselineFile, resultFile);
+        }
+    }
+
+    /**
+     * Print the ratios of the results of the benchmarks run by both files
+     */
+    static void compare(String baselineFile, String resultFile) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = byName(objectMapper.readTree(new File(baselineFile)));
+        Map<String, JsonNode> result = byName(objectMapper.readTree(new File(resultFile)));
+
+        System.out.printf("%-70s %12s %8s %14s %8s%n", "Benchmark", "Score", "Ratio", "Alloc (B/op)", "Ratio");
+        for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+            JsonNode run = entry.getValue();
+            JsonNode previous = baseline.get(entry.getKey());
+
+            double score = run.path("primaryMetric").path("score").asDouble();
+            double allocation = run.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score").asDouble(Double.NaN);
+            double scoreRatio = Double.NaN;
+            double allocationRatio = Double.NaN;
+            if (previous != null) {
+                scoreRatio = score / previous.path("primaryMetric").path("score").asDouble();
+                allocationRatio = allocation / previous.path("secondaryMetrics").path(ALLOCATION_METRIC)
+                        .path("score").asDouble(Double.NaN);
+            }
+            System.out.printf("%-70s %12.3f %8.2f %14.0f %8.2f%n", entry.getKey(), score, scoreRatio,
+                    allocation, allocationRatio);
+        }
+    }
+
+    // runs of a result file by benchmark and parameters, e.g. "RenderBenchmark.renderScene canvasSize=512"
+    private static Map<String, JsonNode> byName(JsonNode runs) {
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText()
+                    .replace(BenchmarkRunner.class.getPackageName() + ".", ""));
+            run.path("params").fields().forEachRemaining(param ->
+                    name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            byName.put(name.toString(), run);
+        }
+        return byName;
+    }
+}
@@ -0,0 +1,89 @@
+package genuary._2025.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+import voronoi.Delaunay;
+import voronoi.IndexedDelaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Triangulation of uniformly distributed sites, by both engines: insertion of the sites one by
+ * one, then with the Voronoi regions computed (as objects, and as primitive arrays for the
+ * indexed engine).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DelaunayBenchmark {
+    private static final float SIZE = 2025;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int siteCount;
+
+    private List<PVector> sites;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(siteCount);
+        sites = new ArrayList<>(siteCount);
+        for (int i = 0; i < siteCount; i++) {
+            sites.add(new PVector(random.nextFloat(SIZE), random.nextFloat(SIZE)));
+        }
+    }
+
+    @Benchmark
+    public Delaunay insertPoint() {
+        Delaunay delaunay = new Delaunay();
+        for (PVector site : sites) {
+            delaunay.insertPoint(site);
+        }
+        return delaunay;
+    }
+
+    @Benchmark
+    public List<List<PVector>> computeVoronoi() {
+        Delaunay delaunay = new Delaunay();
+        delaunay.insertAll(sites);
+        return delaunay.computeVoronoi(0, 0, SIZE, SIZE);
+    }
+
+    @Benchmark
+    public IndexedDelaunay indexedInsertPoint() {
+        IndexedDelaunay delaunay = new IndexedDelaunay(siteCount);
+        for (PVector site : sites) {
+            delaunay.insertPoint(site);
+        }
+        return delaunay;
+    }
+
+    @Benchmark
+    public List<List<PVector>> indexedComputeVoronoi() {
+        IndexedDelaunay delaunay = new IndexedDelaunay(siteCount);
+        delaunay.insertAll(sites);
+        return delaunay.computeVoronoi();
+    }
+
+    @Benchmark
+    public IndexedDelaunay.Regions indexedComputeRegions() {
+        IndexedDelaunay delaunay = new IndexedDelaunay(siteCount);
+        delaunay.insertAll(sites);
+        return delaunay.computeRegions();
+    }
+}
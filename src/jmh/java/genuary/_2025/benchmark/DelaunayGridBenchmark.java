@@ -0,0 +1,71 @@
+package genuary._2025.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+import voronoi.Delaunay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insertion of the sites of a shuffled integer grid, one by one and in BRIO order: most of them
+ * fall on an existing edge, whose removal has to stay in constant time for the insertion not to
+ * degrade to quadratic (the time per site would then grow as fast as the number of sites).
+ * <p>
+ * The time per site still grows a little with the grid: one by one, the walk of the point
+ * location takes about n^(1/3) steps, each of them likely to miss the cache on large grids.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DelaunayGridBenchmark {
+
+    @Param({"90", "150", "210", "300"})
+    public int gridSize;
+
+    private List<PVector> sites;
+
+    @Setup
+    public void setUp() {
+        sites = new ArrayList<>(gridSize * gridSize);
+        for (int i = 0; i < gridSize; i++) {
+            for (int j = 0; j < gridSize; j++) {
+                sites.add(new PVector(i, j));
+            }
+        }
+        Collections.shuffle(sites, new Random(gridSize));
+    }
+
+    @Benchmark
+    public Delaunay insertPoint() {
+        Delaunay delaunay = new Delaunay();
+        delaunay.setBoundingBox(0, 0, gridSize - 1, gridSize - 1);
+        for (PVector site : sites) {
+            delaunay.insertPoint(site);
+        }
+        return delaunay;
+    }
+
+    @Benchmark
+    public Delaunay insertAll() {
+        Delaunay delaunay = new Delaunay();
+        delaunay.insertAll(sites);
+        return delaunay;
+    }
+}
@@ -0,0 +1,75 @@
+package genuary._2025.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+import voronoi.Delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Triangulation of up to millions of uniformly distributed sites: incremental insertion in BRIO
+ * order against divide and conquer, on a single thread and on the common pool, to compare how
+ * the engines scale with the number of sites and of threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class DelaunayScalingBenchmark {
+    private static final float SIZE = 2025;
+
+    @Param({"10000", "100000", "1000000", "4000000"})
+    public int siteCount;
+
+    private List<PVector> sites;
+    private ForkJoinPool singleThread;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(siteCount);
+        sites = new ArrayList<>(siteCount);
+        for (int i = 0; i < siteCount; i++) {
+            sites.add(new PVector(random.nextFloat(SIZE), random.nextFloat(SIZE)));
+        }
+        singleThread = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThread.shutdown();
+    }
+
+    @Benchmark
+    public Delaunay insertAll() {
+        Delaunay delaunay = new Delaunay();
+        delaunay.insertAll(sites);
+        return delaunay;
+    }
+
+    @Benchmark
+    public Delaunay divideAndConquer() {
+        return Delaunay.divideAndConquer(sites, singleThread);
+    }
+
+    @Benchmark
+    public Delaunay parallelDivideAndConquer() {
+        return Delaunay.divideAndConquer(sites, ForkJoinPool.commonPool());
+    }
+}
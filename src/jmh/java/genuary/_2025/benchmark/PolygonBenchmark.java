@@ -0,0 +1,61 @@
+package genuary._2025.benchmark;
+
+import genuary._2025.layer.Layer;
+import genuary._2025.layer.Polygon;
+import genuary._2025.parameters.Parameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chaikin smoothing of the Voronoi cells of a layer, uniform (tolerance 0) or adaptive
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolygonBenchmark {
+
+    @Param({"10", "100"})
+    public int siteCount;
+
+    @Param({"4", "7", "10"})
+    public int chaikinDepth;
+
+    @Param({"0", "0.25"})
+    public float chaikinTolerance;
+
+    private Parameters parameters;
+    private List<List<PVector>> cells;
+
+    @Setup
+    public void setUp() {
+        parameters = BenchmarkParameters.parameters(Map.of(
+                "NUMBER_OF_CUTS", siteCount,
+                "CHAIKIN_DEPTH", chaikinDepth,
+                "CHAIKIN_TOLERANCE", chaikinTolerance));
+        cells = Layer.computeCells(parameters,
+                Layer.generateSites(parameters, new SplittableRandom(parameters.seed())));
+    }
+
+    @Benchmark
+    public List<Polygon> smoothCells() {
+        return Layer.smoothCells(parameters, cells);
+    }
+}
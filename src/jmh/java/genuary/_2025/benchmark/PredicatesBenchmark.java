@@ -0,0 +1,144 @@
+package genuary._2025.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import voronoi.Predicates;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The adaptive predicates against the float code they replaced (the varargs det33), on random
+ * points and on nearly degenerate ones, where the adaptive predicates fall back to their exact
+ * stage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredicatesBenchmark {
+    private static final int COUNT = 1024;
+
+    @Param({"random", "degenerate"})
+    public String points;
+
+    // COUNT groups of four points (x0, y0, ... x3, y3)
+    private float[] coordinates;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(COUNT);
+        coordinates = new float[8 * COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            if (points.equals("random")) {
+                for (int j = 0; j < 8; j++) {
+                    coordinates[8 * i + j] = random.nextFloat(2025);
+                }
+            } else {
+                // corners of a rectangle: on a circle, and three by three on no line
+                float x1 = random.nextFloat(2025);
+                float x2 = random.nextFloat(2025);
+                float y1 = random.nextFloat(2025);
+                float y2 = random.nextFloat(2025);
+                float[] corners = {x1, y1, x2, y1, x2, y2, x1, y2};
+                System.arraycopy(corners, 0, coordinates, 8 * i, 8);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int inCircle() {
+        int inside = 0;
+        float[] c = coordinates;
+        for (int i = 0; i < c.length; i += 8) {
+            if (Predicates.inCircle(c[i], c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5], c[i + 6], c[i + 7]) > 0) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int legacyInCircle() {
+        int inside = 0;
+        float[] c = coordinates;
+        for (int i = 0; i < c.length; i += 8) {
+            if (legacyInCircle(c[i], c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5], c[i + 6], c[i + 7])) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int orientation() {
+        int counterClockwise = 0;
+        float[] c = coordinates;
+        for (int i = 0; i < c.length; i += 8) {
+            if (Predicates.orientation(c[i], c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5]) > 0) {
+                counterClockwise++;
+            }
+        }
+        return counterClockwise;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int legacyOrientation() {
+        int counterClockwise = 0;
+        float[] c = coordinates;
+        for (int i = 0; i < c.length; i += 8) {
+            if (legacyIsCounterClockwise(c[i], c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5])) {
+                counterClockwise++;
+            }
+        }
+        return counterClockwise;
+    }
+
+    // ----------------------------------------------------------------
+    //          Float predicates of QuadEdge before Predicates
+    // ----------------------------------------------------------------
+
+    private static boolean legacyIsCounterClockwise(float ax, float ay, float bx, float by, float cx, float cy) {
+        return (ax - bx) * (by - cy) > (ay - by) * (bx - cx);
+    }
+
+    private static boolean legacyInCircle(float ax, float ay, float bx, float by,
+                                          float cx, float cy, float dx, float dy) {
+        float a2 = ax * ax + ay * ay;
+        float b2 = bx * bx + by * by;
+        float c2 = cx * cx + cy * cy;
+        float d2 = dx * dx + dy * dy;
+
+        float det44 = 0;
+        det44 += d2 * det33(ax, ay, 1, bx, by, 1, cx, cy, 1);
+        det44 -= dx * det33(a2, ay, 1, b2, by, 1, c2, cy, 1);
+        det44 += dy * det33(a2, ax, 1, b2, bx, 1, c2, cx, 1);
+        det44 -= 1 * det33(a2, ax, ay, b2, bx, by, c2, cx, cy);
+
+        return det44 < 0;
+    }
+
+    private static float det33(float... m) {
+        float det33 = 0;
+        det33 += m[0] * (m[4] * m[8] - m[5] * m[7]);
+        det33 -= m[1] * (m[3] * m[8] - m[5] * m[6]);
+        det33 += m[2] * (m[3] * m[7] - m[4] * m[6]);
+        return det33;
+    }
+}
@@ -0,0 +1,65 @@
+package genuary._2025.benchmark;
+
+import genuary._2025.Scene;
+import genuary._2025.batch.BatchRenderer;
+import genuary._2025.parameters.Parameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.awt.PGraphicsJava2D;
+
+import java.awt.Image;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless rendering: the geometry of all the layers, then their drawing into an offscreen
+ * buffer, with the projected shadow from the distance field or from the stroked outlines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    @Param({"512", "1024", "2025"})
+    public int canvasSize;
+
+    @Param({"true", "false"})
+    public boolean distanceField;
+
+    private Parameters parameters;
+    private Scene scene;
+    private PGraphicsJava2D graphics;
+
+    @Setup
+    public void setUp() {
+        parameters = BenchmarkParameters.canvas(canvasSize, Map.of("PROJECTED_SHADOW_DISTANCE_FIELD", distanceField));
+        scene = Scene.generate(parameters);
+
+        graphics = BatchRenderer.createGraphics(canvasSize, canvasSize);
+    }
+
+    @Benchmark
+    public Scene generateScene() {
+        return Scene.generate(parameters);
+    }
+
+    @Benchmark
+    public Image renderScene() {
+        graphics.beginDraw();
+        scene.render(graphics);
+        graphics.endDraw();
+        return graphics.image;
+    }
+}
@@ -0,0 +1,88 @@
+package genuary._2025.benchmark;
+
+import genuary._2025.Scene;
+import genuary._2025.batch.BatchRenderer;
+import genuary._2025.save.PngEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.awt.PGraphicsJava2D;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two halves of SaveUtil.saveSketch() on a rendered scene: the copy of the pixels, made on the
+ * rendering thread, and their png encoding (on the common pool), made in the background, for a
+ * few compression levels and filters, against ImageIO (behind PApplet.save).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class SaveBenchmark {
+
+    @Param({"1024", "2025"})
+    public int canvasSize;
+
+    private int[] pixels;
+    private BufferedImage image;
+
+    @State(Scope.Benchmark)
+    public static class Encoding {
+        @Param({"1", "6", "9"})
+        public int compressionLevel;
+
+        @Param
+        public PngEncoder.Filter filter;
+    }
+
+    @Setup
+    public void setUp() {
+        PGraphicsJava2D graphics = BatchRenderer.createGraphics(canvasSize, canvasSize);
+
+        graphics.beginDraw();
+        Scene.generate(BenchmarkParameters.canvas(canvasSize, Map.of())).render(graphics);
+        graphics.endDraw();
+        pixels = ((DataBufferInt) ((BufferedImage) graphics.image).getRaster().getDataBuffer()).getData();
+
+        image = new BufferedImage(canvasSize, canvasSize, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, canvasSize, canvasSize, pixels, 0, canvasSize);
+    }
+
+    @Benchmark
+    public int[] copyPixels() {
+        return Arrays.copyOf(pixels, pixels.length);
+    }
+
+    @Benchmark
+    public void encodePng(Encoding encoding) throws IOException {
+        PngEncoder encoder = new PngEncoder(OutputStream.nullOutputStream(), canvasSize, canvasSize, false,
+                encoding.compressionLevel, encoding.filter, ForkJoinPool.commonPool(),
+                ForkJoinPool.getCommonPoolParallelism());
+        encoder.writeRows(pixels, 0, canvasSize);
+        encoder.finish();
+    }
+
+    @Benchmark
+    public boolean encodeImageIO() throws IOException {
+        return ImageIO.write(image, "png", OutputStream.nullOutputStream());
+    }
+}
@@ -1,45 +1,48 @@
 package genuary._2025;
 
 import genuary._2025.layer.Layer;
+import genuary._2025.parameters.Parameters;
 import processing.core.PApplet;
 
-import static genuary._2025.parameters.Parameters.*;
+import static genuary._2025.save.SaveUtil.loadParameters;
 import static genuary._2025.save.SaveUtil.saveSketch;
 
+/**
+ * Usage: Genuary02 [parameters.json]
+ * <p>
+ * Without argument, the sketch is drawn with the default parameters; otherwise with the ones
+ * saved next to a previous render.
+ */
 public class Genuary02 extends PApplet {
+    private Parameters parameters;
+
     public static void main(String[] args) {
-        PApplet.main(Genuary02.class);
+        PApplet.main(Genuary02.class, args);
     }
 
     @Override
     public void settings() {
-        size(WIDTH, HEIGHT);
-        randomSeed(SEED);
+        parameters = args != null && args.length > 0 ? loadParameters(args[0]) : Parameters.DEFAULT;
+        size(parameters.width(), parameters.height());
     }
 
     @Override
     public void setup() {
-        background(BACKGROUND_COLOR.red(), BACKGROUND_COLOR.green(), BACKGROUND_COLOR.green());
         noFill();
         noLoop();
-
-        Layer.setPApplet(this);
     }
 
     @Override
     public void draw() {
-        for (int i = 0; i < NUMBER_OF_LAYERS; i++) {
-            Layer layer = new Layer();
-            layer.render(LAYER_COLOR);
-        }
+        Scene scene = Scene.generate(parameters);
+        scene.render(g);
 
-        // Borders
-        fill(LAYER_COLOR.red(), LAYER_COLOR.green(), LAYER_COLOR.blue(), LAYER_COLOR.alpha());
-        rect(0, 0, WIDTH, MARGIN);
-        rect(0, 0, MARGIN, HEIGHT);
-        rect(0, HEIGHT - MARGIN, WIDTH, MARGIN);
-        rect(WIDTH - MARGIN, 0, MARGIN, HEIGHT);
+        for (int i = 0; i < parameters.numberOfLayers(); i++) {
+            Layer layer = scene.layers().get(i);
+            System.out.printf("Layer %d: %d vertices.%n", i, layer.vertexCount());
+        }
+        System.out.printf("Total: %d vertices.%n", scene.vertexCount());
 
-        saveSketch(this);
+        saveSketch(this, parameters, scene.statistics());
     }
 }
@@ -0,0 +1,117 @@
+package genuary._2025;
+
+import genuary._2025.layer.Layer;
+import genuary._2025.parameters.Parameters;
+import genuary._2025.parameters.Parameters.Color;
+import genuary._2025.save.SvgWriter;
+import genuary._2025.statistics.Statistics;
+import processing.core.PGraphics;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The layers generated from a seed, with the background and the borders around them
+ */
+public record Scene(Parameters parameters, List<Layer> layers) {
+
+    /**
+     * @return the scene of the seed of the parameters
+     */
+    public static Scene generate(Parameters parameters) {
+        return generate(parameters, parameters.seed());
+    }
+
+    public static Scene generate(Parameters parameters, long seed) {
+        return new Scene(parameters, Layer.generateLayers(parameters, seed));
+    }
+
+    /**
+     * @return the number of vertices of all the layers
+     */
+    public int vertexCount() {
+        return layers.stream().mapToInt(Layer::vertexCount).sum();
+    }
+
+    /**
+     * @return the time, allocations and counts of the stages of all the layers, so far
+     */
+    public Statistics statistics() {
+        Statistics statistics = new Statistics();
+        for (Layer layer : layers) {
+            statistics.add(layer.statistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Draw the scene
+     *
+     * @param graphics the renderer, between beginDraw() and endDraw()
+     */
+    public void render(PGraphics graphics) {
+        Color backgroundColor = parameters.backgroundColor();
+        graphics.background(backgroundColor.red(), backgroundColor.green(), backgroundColor.blue());
+
+        for (Layer layer : layers) {
+            layer.render(graphics, parameters.layerColor());
+        }
+
+        drawBorders(graphics);
+    }
+
+    /**
+     * Draw the part of the scene lying in a region of the canvas (a tile)
+     *
+     * @param graphics the renderer, between beginDraw() and endDraw(), clipped to the region
+     * @param minX, minY, maxX, maxY summits of the region
+     */
+    public void render(PGraphics graphics, float minX, float minY, float maxX, float maxY) {
+        Color backgroundColor = parameters.backgroundColor();
+        graphics.background(backgroundColor.red(), backgroundColor.green(), backgroundColor.blue());
+
+        for (Layer layer : layers) {
+            layer.render(graphics, parameters.layerColor(), minX, minY, maxX, maxY);
+        }
+
+        drawBorders(graphics);
+    }
+
+    /**
+     * Write the scene as vector graphics, layer after layer
+     *
+     * @param svg the document, of the size of the canvas
+     */
+    public void export(SvgWriter svg) throws IOException {
+        Color backgroundColor = parameters.backgroundColor();
+        svg.rect(0, 0, parameters.width(), parameters.height(),
+                new Color(backgroundColor.red(), backgroundColor.green(), backgroundColor.blue()));
+
+        for (Layer layer : layers) {
+            layer.export(svg, parameters.layerColor());
+        }
+
+        Color layerColor = parameters.layerColor();
+        int width = parameters.width();
+        int height = parameters.height();
+        float margin = parameters.margin();
+        svg.rect(0, 0, width, margin, layerColor);
+        svg.rect(0, 0, margin, height, layerColor);
+        svg.rect(0, height - margin, width, margin, layerColor);
+        svg.rect(width - margin, 0, margin, height, layerColor);
+    }
+
+    private void drawBorders(PGraphics graphics) {
+        Color layerColor = parameters.layerColor();
+        int width = parameters.width();
+        int height = parameters.height();
+        float margin = parameters.margin();
+
+        graphics.noStroke();
+        graphics.fill(layerColor.red(), layerColor.green(), layerColor.blue(), layerColor.alpha());
+        graphics.rect(0, 0, width, margin);
+        graphics.rect(0, 0, margin, height);
+        graphics.rect(0, height - margin, width, margin);
+        graphics.rect(width - margin, 0, margin, height);
+    }
+}
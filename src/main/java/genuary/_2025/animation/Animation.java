@@ -0,0 +1,96 @@
+package genuary._2025.animation;
+
+import genuary._2025.Scene;
+import genuary._2025.layer.Layer;
+import genuary._2025.parameters.Parameters;
+import processing.core.PApplet;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static genuary._2025.save.SaveUtil.loadParameters;
+
+/**
+ * Usage: Animation [parameters.json]
+ * <p>
+ * The sketch played live: it starts from the still image of the seed, then the sites of the cuts
+ * drift and bounce inside the margin. The layers are kept from one frame to the next, only the
+ * polygons of the regions that changed being smoothed again (see {@link LiveLayer}), and the
+ * smoothing depth is lowered whenever a frame overruns its budget (see {@link FrameBudget}).
+ * <p>
+ * Press 'h' to show or hide the histogram of the frame times.
+ */
+public class Animation extends PApplet {
+    private static final float FRAME_RATE = 60;
+    private static final float DRIFT_SPEED = 15;
+
+    // longest step of the sites, so that they do not jump after a stall
+    private static final float MAXIMUM_STEP = .1f;
+
+    private Parameters parameters;
+    private List<LiveLayer> layers;
+    private Scene scene;
+    private FrameBudget budget;
+    private final FrameHistogram histogram = new FrameHistogram();
+    private boolean overlay = true;
+    private long previousFrame;
+
+    public static void main(String[] args) {
+        PApplet.main(Animation.class, args);
+    }
+
+    @Override
+    public void settings() {
+        parameters = args != null && args.length > 0 ? loadParameters(args[0]) : Parameters.DEFAULT;
+        size(parameters.width(), parameters.height());
+    }
+
+    @Override
+    public void setup() {
+        frameRate(FRAME_RATE);
+
+        List<SplittableRandom> randoms = Layer.splitRandom(parameters.seed(), parameters.numberOfLayers());
+        layers = IntStream.range(0, randoms.size()).parallel()
+                .mapToObj(i -> new LiveLayer(parameters, i, randoms.get(i), DRIFT_SPEED))
+                .toList();
+        scene = new Scene(parameters, layers.stream().map(LiveLayer::layer).toList());
+        budget = new FrameBudget(FRAME_RATE, parameters.chaikinDepth());
+        previousFrame = System.nanoTime();
+    }
+
+    @Override
+    public void draw() {
+        long frameStart = System.nanoTime();
+        float seconds = Math.min((frameStart - previousFrame) / 1e9f, MAXIMUM_STEP);
+        previousFrame = frameStart;
+
+        // each layer owns its sites and its pool: they are updated in parallel
+        int depth = budget.depth();
+        long deadline = budget.geometryDeadline(frameStart);
+        int smoothed = layers.parallelStream()
+                .mapToInt(layer -> {
+                    layer.step(seconds);
+                    return layer.update(depth, deadline);
+                })
+                .sum();
+
+        long renderStart = System.nanoTime();
+        scene.render(g);
+        long frameEnd = System.nanoTime();
+
+        budget.frameDone(frameEnd - frameStart, frameEnd - renderStart);
+        histogram.add(frameEnd - frameStart);
+        if (overlay) {
+            histogram.draw(g, budget.budgetMilliseconds(), String.format("depth %d, %d polygons smoothed, %d vertices",
+                    depth, smoothed, scene.vertexCount()));
+        }
+    }
+
+    @Override
+    public void keyPressed() {
+        if (key == 'h') {
+            overlay = !overlay;
+        }
+    }
+}
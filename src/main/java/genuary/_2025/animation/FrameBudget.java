@@ -0,0 +1,70 @@
+package genuary._2025.animation;
+
+/**
+ * Time budget of a frame, shared between updating the geometry and rendering it.
+ * <p>
+ * The geometry gets what the rendering leaves of the budget, the rendering time being estimated
+ * from the previous frames. The smoothing depth goes down by one after each frame over budget, and
+ * back up after HEADROOM_FRAMES frames in a row well within it.
+ */
+final class FrameBudget {
+    // weight of the last frame in the estimate of the rendering time
+    private static final double RENDER_SMOOTHING = .1;
+    private static final double HEADROOM = .75;
+    private static final int HEADROOM_FRAMES = 30;
+
+    private final long budget;
+    private final int maximumDepth;
+
+    private int depth;
+    private double renderEstimate;
+    private int framesWithinHeadroom;
+
+    /**
+     * @param frameRate    the target frame rate
+     * @param maximumDepth the smoothing depth of the still sketch, the one the animation starts at
+     */
+    FrameBudget(float frameRate, int maximumDepth) {
+        this.budget = Math.round(1e9 / frameRate);
+        this.maximumDepth = maximumDepth;
+        this.depth = maximumDepth;
+    }
+
+    /**
+     * @return the smoothing depth of the next frame
+     */
+    int depth() {
+        return depth;
+    }
+
+    float budgetMilliseconds() {
+        return budget / 1e6f;
+    }
+
+    /**
+     * @param frameStart the start of the frame (System.nanoTime())
+     * @return the time after which the geometry update would make the frame overrun its budget
+     */
+    long geometryDeadline(long frameStart) {
+        return frameStart + budget - (long) renderEstimate;
+    }
+
+    /**
+     * Adapt the smoothing depth to the time the last frame took
+     *
+     * @param frameNanoseconds  the time of the whole frame
+     * @param renderNanoseconds the time of its rendering
+     */
+    void frameDone(long frameNanoseconds, long renderNanoseconds) {
+        renderEstimate = renderEstimate == 0 ? renderNanoseconds
+                : renderEstimate + RENDER_SMOOTHING * (renderNanoseconds - renderEstimate);
+
+        if (frameNanoseconds > budget) {
+            depth = Math.max(1, depth - 1);
+            framesWithinHeadroom = 0;
+        } else if (frameNanoseconds < HEADROOM * budget && ++framesWithinHeadroom >= HEADROOM_FRAMES) {
+            depth = Math.min(maximumDepth, depth + 1);
+            framesWithinHeadroom = 0;
+        }
+    }
+}
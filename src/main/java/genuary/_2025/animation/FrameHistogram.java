@@ -0,0 +1,91 @@
+package genuary._2025.animation;
+
+import processing.core.PGraphics;
+
+/**
+ * Histogram of the frame times over the last WINDOW frames, by millisecond, drawn as an overlay
+ */
+final class FrameHistogram {
+    // the last bucket gathers the frames of MAXIMUM_MILLISECONDS and more
+    private static final int MAXIMUM_MILLISECONDS = 50;
+    private static final int WINDOW = 240;
+
+    private static final float BAR_WIDTH = 4;
+    private static final float HEIGHT = 80;
+    private static final float PADDING = 8;
+    private static final float LINE_HEIGHT = 14;
+
+    private final int[] counts = new int[MAXIMUM_MILLISECONDS + 1];
+
+    // bucket of each frame of the window, as a ring
+    private final int[] window = new int[WINDOW];
+    private int frames;
+
+    void add(long nanoseconds) {
+        int bucket = (int) Math.min(nanoseconds / 1_000_000, MAXIMUM_MILLISECONDS);
+        int slot = frames % WINDOW;
+        if (frames >= WINDOW) {
+            counts[window[slot]]--;
+        }
+        window[slot] = bucket;
+        counts[bucket]++;
+        frames++;
+    }
+
+    /**
+     * @return the frame time (in whole milliseconds) a proportion of the frames of the window stay under
+     */
+    int percentile(double proportion) {
+        int total = Math.min(frames, WINDOW);
+        int count = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            count += counts[bucket];
+            if (count >= proportion * total) {
+                return bucket;
+            }
+        }
+        return MAXIMUM_MILLISECONDS;
+    }
+
+    /**
+     * Draw the histogram in the top left corner, with the budget of a frame and a line of information
+     *
+     * @param graphics          the renderer, between beginDraw() and endDraw()
+     * @param budgetMilliseconds the time budget of a frame
+     * @param information       the line written under the percentiles
+     */
+    void draw(PGraphics graphics, float budgetMilliseconds, String information) {
+        int maximum = 1;
+        for (int count : counts) {
+            maximum = Math.max(maximum, count);
+        }
+        float width = counts.length * BAR_WIDTH;
+
+        graphics.noStroke();
+        graphics.fill(0, 180);
+        graphics.rect(0, 0, width + 2 * PADDING, HEIGHT + 2 * LINE_HEIGHT + 3 * PADDING);
+
+        // bars, red past the budget
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            float barHeight = HEIGHT * counts[bucket] / maximum;
+            if (bucket + 1 > budgetMilliseconds) {
+                graphics.fill(230, 80, 60);
+            } else {
+                graphics.fill(120, 200, 120);
+            }
+            graphics.rect(PADDING + bucket * BAR_WIDTH, PADDING + HEIGHT - barHeight, BAR_WIDTH - 1, barHeight);
+        }
+
+        graphics.stroke(255);
+        graphics.strokeWeight(1);
+        float budgetX = PADDING + Math.min(budgetMilliseconds, counts.length) * BAR_WIDTH;
+        graphics.line(budgetX, PADDING, budgetX, PADDING + HEIGHT);
+
+        graphics.noStroke();
+        graphics.fill(255);
+        graphics.textSize(11);
+        graphics.text(String.format("p50 %d ms, p99 %d ms, max %d ms", percentile(.5), percentile(.99),
+                percentile(1)), PADDING, 2 * PADDING + HEIGHT + LINE_HEIGHT - 3);
+        graphics.text(information, PADDING, 2 * PADDING + HEIGHT + 2 * LINE_HEIGHT - 3);
+    }
+}
@@ -0,0 +1,197 @@
+package genuary._2025.animation;
+
+import genuary._2025.layer.Layer;
+import genuary._2025.layer.Polygon;
+import genuary._2025.layer.VertexPool;
+import genuary._2025.parameters.Parameters;
+import processing.core.PVector;
+import voronoi.Delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A layer kept alive across the frames of the animation, its sites drifting.
+ * <p>
+ * The geometry follows the sites by steps: a site only moves its cut once it drifted REBUILD_DISTANCE
+ * away from the position the geometry was built from. It is then moved in the triangulation of the
+ * layer, which only recomputes the regions around it, and only the regions whose vertices changed
+ * are smoothed again, into buffers of the pool of the layer, the buffers of the polygons replaced
+ * going back to the pool.
+ * <p>
+ * Regions are smoothed at the depth given by the frame budget, or at depth 1 once the geometry
+ * deadline of the frame has passed; they are refined in the next frames that have time left.
+ */
+final class LiveLayer {
+    private static final float REBUILD_DISTANCE = .5f;
+    private static final float REGION_EPSILON = 1e-3f;
+
+    private final Parameters parameters;
+    private final Layer layer;
+    private final VertexPool pool = new VertexPool();
+
+    // current position and velocity of the sites (x0, y0, x1, y1...)
+    private final float[] positions;
+    private final float[] velocities;
+
+    // positions of the sites the geometry was built from, and their triangulation
+    private final List<PVector> sites;
+    private final Delaunay delaunay = new Delaunay();
+
+    // Voronoi regions of the sites, their polygons and the depth they were smoothed at
+    private List<List<PVector>> cells;
+    private final List<Polygon> polygons = new ArrayList<>();
+    private int[] depths = new int[0];
+
+    /**
+     * Build the geometry of a layer at full depth, from the sites of the still sketch
+     *
+     * @param parameters the parameters of the sketch
+     * @param index      the index of the layer, in rendering order
+     * @param random     the random stream of this layer
+     * @param speed      the drift speed of the sites, in pixels per second
+     */
+    LiveLayer(Parameters parameters, int index, SplittableRandom random, float speed) {
+        this.parameters = parameters;
+        sites = new ArrayList<>(Layer.generateSites(parameters, random));
+
+        positions = new float[2 * sites.size()];
+        velocities = new float[2 * sites.size()];
+        for (int i = 0; i < sites.size(); i++) {
+            positions[2 * i] = sites.get(i).x;
+            positions[2 * i + 1] = sites.get(i).y;
+            double angle = random.nextDouble(2 * Math.PI);
+            float siteSpeed = speed * random.nextFloat(.5f, 1);
+            velocities[2 * i] = (float) Math.cos(angle) * siteSpeed;
+            velocities[2 * i + 1] = (float) Math.sin(angle) * siteSpeed;
+        }
+
+        delaunay.insertAll(sites);
+        layer = new Layer(parameters, index, polygons);
+        rebuild(parameters.chaikinDepth(), Long.MAX_VALUE);
+    }
+
+    Layer layer() {
+        return layer;
+    }
+
+    /**
+     * Move the sites, bouncing on the margin
+     *
+     * @param seconds time elapsed since the previous step
+     */
+    void step(float seconds) {
+        float margin = parameters.margin();
+        for (int i = 0; i < positions.length; i++) {
+            float maximum = (i % 2 == 0 ? parameters.width() : parameters.height()) - margin;
+            float position = positions[i] + velocities[i] * seconds;
+            if (position < margin || position > maximum) {
+                velocities[i] = -velocities[i];
+                position = Math.min(Math.max(position, margin), maximum);
+            }
+            positions[i] = position;
+        }
+    }
+
+    /**
+     * Update the geometry after the sites moved
+     *
+     * @param depth    the smoothing depth of the frame
+     * @param deadline the time (System.nanoTime()) after which regions are only smoothed at depth 1,
+     *                 and no longer refined
+     * @return the number of polygons smoothed
+     */
+    int update(int depth, long deadline) {
+        boolean moved = false;
+        for (int i = 0; i < sites.size(); i++) {
+            PVector site = sites.get(i);
+            float dx = positions[2 * i] - site.x;
+            float dy = positions[2 * i + 1] - site.y;
+            if (dx * dx + dy * dy > REBUILD_DISTANCE * REBUILD_DISTANCE) {
+                PVector position = new PVector(positions[2 * i], positions[2 * i + 1]);
+                if (delaunay.movePoint(site, position)) {
+                    sites.set(i, position);
+                    moved = true;
+                }
+            }
+        }
+        return moved ? rebuild(depth, deadline) : refine(depth, deadline);
+    }
+
+    // smooth the regions that changed, then refine the others
+    private int rebuild(int depth, long deadline) {
+        List<List<PVector>> previous = cells;
+        cells = Layer.computeCells(parameters, delaunay);
+
+        // two sites may meet: their regions are all smoothed again
+        if (previous == null || previous.size() != cells.size()) {
+            for (Polygon polygon : polygons) {
+                pool.give(polygon.coordinates());
+            }
+            polygons.clear();
+            depths = new int[cells.size()];
+            previous = null;
+        }
+
+        int smoothed = 0;
+        for (int k = 0; k < cells.size(); k++) {
+            if (previous == null || !sameRegion(previous.get(k), cells.get(k))) {
+                smooth(k, System.nanoTime() < deadline ? depth : 1);
+                smoothed++;
+            }
+        }
+        if (smoothed > 0) {
+            layer.invalidate();
+        }
+        return smoothed + refine(depth, deadline);
+    }
+
+    // smooth again the regions smoothed at a lower depth, while there is time left
+    private int refine(int depth, long deadline) {
+        int smoothed = 0;
+        for (int k = 0; k < cells.size() && System.nanoTime() < deadline; k++) {
+            if (depths[k] < depth) {
+                smooth(k, depth);
+                smoothed++;
+            }
+        }
+        if (smoothed > 0) {
+            layer.invalidate();
+        }
+        return smoothed;
+    }
+
+    private void smooth(int k, int depth) {
+        Polygon polygon = Polygon.smooth(parameters, depth, cells.get(k), pool);
+        if (k < polygons.size()) {
+            pool.give(polygons.set(k, polygon).coordinates());
+        } else {
+            polygons.add(polygon);
+        }
+        depths[k] = depth;
+    }
+
+    // same vertices, whatever the one the region starts from
+    private static boolean sameRegion(List<PVector> a, List<PVector> b) {
+        int size = a.size();
+        if (size != b.size()) {
+            return false;
+        }
+        for (int offset = 0; offset < size; offset++) {
+            if (close(a.get(0), b.get(offset))) {
+                for (int i = 1; i < size; i++) {
+                    if (!close(a.get(i), b.get((i + offset) % size))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean close(PVector a, PVector b) {
+        return Math.abs(a.x - b.x) <= REGION_EPSILON && Math.abs(a.y - b.y) <= REGION_EPSILON;
+    }
+}
@@ -0,0 +1,119 @@
+package genuary._2025.batch;
+
+import genuary._2025.Genuary02;
+import genuary._2025.Scene;
+import genuary._2025.parameters.Parameters;
+import processing.awt.PGraphicsJava2D;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static genuary._2025.save.SaveUtil.awaitSaves;
+import static genuary._2025.save.SaveUtil.loadParameters;
+import static genuary._2025.save.SaveUtil.saveBatchParameters;
+import static genuary._2025.save.SaveUtil.saveRender;
+
+/**
+ * Renders a range of seeds into offscreen buffers, without any window, in a single JVM.
+ * <p>
+ * Usage: BatchRenderer firstSeed lastSeed [workers [parameters.json...]]
+ * <p>
+ * The seeds are spread over a pool of render workers (one per processor by default), each keeping
+ * its own Java2D buffer from one seed to the next. The renders are encoded and written by the save
+ * writers while the workers go on with the next seeds, each with a json file of its parameters and
+ * of the statistics of its stages.
+ * <p>
+ * Given parameter files, the range is rendered with each of them in turn (named after the file),
+ * instead of the default parameters.
+ */
+public class BatchRenderer {
+    private static final String SKETCH_NAME = Genuary02.class.getSimpleName();
+
+    // offscreen buffer of each worker, replaced when the size of the canvas changes
+    private static final ThreadLocal<PGraphicsJava2D> GRAPHICS = new ThreadLocal<>();
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        if (args.length < 2) {
+            System.out.println("Usage: BatchRenderer firstSeed lastSeed [workers [parameters.json...]]");
+            return;
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        long firstSeed = Long.parseLong(args[0]);
+        long lastSeed = Long.parseLong(args[1]);
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        // parameters of each configuration, by name of its renders
+        Map<String, Parameters> configurations = new LinkedHashMap<>();
+        if (args.length <= 3) {
+            configurations.put(SKETCH_NAME, Parameters.DEFAULT);
+        }
+        for (int i = 3; i < args.length; i++) {
+            String name = new File(args[i]).getName().replaceFirst("\\.json$", "");
+            configurations.put(SKETCH_NAME + " - " + name, loadParameters(args[i]));
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<?>> renders = new ArrayList<>();
+        for (Map.Entry<String, Parameters> configuration : configurations.entrySet()) {
+            String sketchName = configuration.getKey();
+            Parameters parameters = configuration.getValue();
+
+            saveBatchParameters(sketchName, parameters, firstSeed, lastSeed);
+            for (long seed = firstSeed; seed <= lastSeed; seed++) {
+                long renderSeed = seed;
+                renders.add(executor.submit(() -> render(parameters, sketchName, renderSeed)));
+            }
+        }
+        try {
+            for (Future<?> render : renders) {
+                render.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        awaitSaves();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d renders on %d workers in %.1f s: %.2f renders/s.%n",
+                renders.size(), workers, seconds, renders.size() / seconds);
+    }
+
+    private static void render(Parameters parameters, String sketchName, long seed) {
+        long start = System.nanoTime();
+        PGraphicsJava2D graphics = GRAPHICS.get();
+        if (graphics == null || graphics.width != parameters.width() || graphics.height != parameters.height()) {
+            graphics = createGraphics(parameters.width(), parameters.height());
+            GRAPHICS.set(graphics);
+        }
+
+        Parameters renderParameters = parameters.withSeed(seed);
+        Scene scene = Scene.generate(renderParameters);
+        graphics.beginDraw();
+        scene.render(graphics);
+        graphics.endDraw();
+        saveRender(graphics, sketchName, renderParameters, scene.statistics());
+
+        System.out.printf("%s, seed %d: %d vertices, %d ms.%n", sketchName, seed, scene.vertexCount(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return an offscreen Java2D buffer, usable without any window
+     */
+    public static PGraphicsJava2D createGraphics(int width, int height) {
+        PGraphicsJava2D graphics = new PGraphicsJava2D();
+        graphics.setPrimary(false);
+        graphics.setSize(width, height);
+        graphics.smooth();
+        return graphics;
+    }
+}
@@ -0,0 +1,90 @@
+package genuary._2025.batch;
+
+import genuary._2025.Genuary02;
+import genuary._2025.Scene;
+import genuary._2025.parameters.Parameters;
+import genuary._2025.save.PngEncoder;
+import processing.awt.PGraphicsJava2D;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+import static genuary._2025.save.SaveUtil.*;
+
+/**
+ * Renders a seed at print size, tile by tile, without ever holding the whole image.
+ * <p>
+ * Usage: TiledRenderer seed width [tileSize [parameters.json]]
+ * <p>
+ * The scene is scaled to the requested width and drawn into a single offscreen buffer of a tile
+ * plus a guard band as wide as the projected shadow, so that the shadows are seamless across the
+ * tiles. Each tile only draws the polygons whose bounds meet it. The tiles of a row are gathered in
+ * a band of tileSize rows, streamed to the png encoder: the memory used is bounded by the tile size
+ * and the width of the print, not by its area.
+ */
+public class TiledRenderer {
+    private static final String SKETCH_NAME = Genuary02.class.getSimpleName();
+    private static final int DEFAULT_TILE_SIZE = 512;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TiledRenderer seed width [tileSize [parameters.json]]");
+            return;
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        long seed = Long.parseLong(args[0]);
+        int width = Integer.parseInt(args[1]);
+        int tileSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TILE_SIZE;
+        Parameters parameters = args.length > 3 ? loadParameters(args[3]) : Parameters.DEFAULT;
+
+        float scale = (float) width / parameters.width();
+        int height = Math.round(parameters.height() * scale);
+        int guard = (int) Math.ceil(parameters.projectedShadowStrokeWeight() * scale / 2) + 2;
+        int bufferSize = tileSize + 2 * guard;
+
+        long start = System.nanoTime();
+        Scene scene = Scene.generate(parameters, seed);
+
+        PGraphicsJava2D graphics = BatchRenderer.createGraphics(bufferSize, bufferSize);
+
+        File file = tiledRenderFile(SKETCH_NAME, seed, width, height);
+        int[] band = new int[width * tileSize];
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            PngEncoder encoder = new PngEncoder(out, width, height, false, PNG_COMPRESSION_LEVEL, PNG_FILTER,
+                    ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+
+            for (int tileY = 0; tileY < height; tileY += tileSize) {
+                int rows = Math.min(tileSize, height - tileY);
+                for (int tileX = 0; tileX < width; tileX += tileSize) {
+                    int columns = Math.min(tileSize, width - tileX);
+
+                    // region of the canvas covered by the buffer
+                    graphics.beginDraw();
+                    graphics.translate(guard - tileX, guard - tileY);
+                    graphics.scale(scale);
+                    scene.render(graphics, (tileX - guard) / scale, (tileY - guard) / scale,
+                            (tileX + tileSize + guard) / scale, (tileY + tileSize + guard) / scale);
+                    graphics.endDraw();
+
+                    int[] pixels = ((DataBufferInt) ((BufferedImage) graphics.image).getRaster().getDataBuffer()).getData();
+                    for (int y = 0; y < rows; y++) {
+                        System.arraycopy(pixels, (y + guard) * bufferSize + guard, band, y * width + tileX, columns);
+                    }
+                }
+                encoder.writeRows(band, 0, rows);
+                System.out.printf("Rows %d-%d rendered.%n", tileY, tileY + rows - 1);
+            }
+            encoder.finish();
+        }
+
+        System.out.printf("Sketch saved: %s (%dx%d, %.1f s).%n", file, width, height,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
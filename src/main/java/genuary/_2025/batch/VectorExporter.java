@@ -0,0 +1,49 @@
+package genuary._2025.batch;
+
+import genuary._2025.Genuary02;
+import genuary._2025.Scene;
+import genuary._2025.parameters.Parameters;
+import genuary._2025.save.SvgWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import static genuary._2025.save.SaveUtil.*;
+
+/**
+ * Exports a seed as an svg file, to be rasterized at any size by the print workflow.
+ * <p>
+ * Usage: VectorExporter seed [parameters.json]
+ * <p>
+ * The outline of each layer (the canvas minus its polygons, even-odd) is written once, then drawn by
+ * reference for the projected shadow strokes and the fill. The document is streamed to the file as
+ * it is written, so its size and the time it takes grow linearly with the number of vertices.
+ */
+public class VectorExporter {
+    private static final String SKETCH_NAME = Genuary02.class.getSimpleName();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: VectorExporter seed [parameters.json]");
+            return;
+        }
+
+        long seed = Long.parseLong(args[0]);
+        Parameters parameters = args.length > 1 ? loadParameters(args[1]) : Parameters.DEFAULT;
+
+        long start = System.nanoTime();
+        Scene scene = Scene.generate(parameters, seed);
+
+        File file = vectorFile(SKETCH_NAME, seed);
+        try (SvgWriter svg = new SvgWriter(FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+                parameters.width(), parameters.height())) {
+            scene.export(svg);
+        }
+
+        System.out.printf("Sketch saved: %s (%d vertices, %d kB, %.1f s).%n", file, scene.vertexCount(),
+                file.length() / 1024, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,222 @@
+package genuary._2025.layer;
+
+import processing.core.PVector;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chaikin subdivision on interleaved coordinates (x0, y0, x1, y1...).
+ * <p>
+ * The curve goes back and forth between two buffers, grown to the worst case size of each level
+ * (every edge split) and reused from one polygon to the next, so that smoothing only allocates
+ * the returned array whatever the depth.
+ */
+public final class Chaikin {
+    private float[] front = new float[0];
+    private float[] back = new float[0];
+
+    /**
+     * Smooth a closed curve, then contract it toward its barycenter
+     *
+     * @param curve       the vertices of the curve
+     * @param depth       number of subdivisions
+     * @param proportion  position of the cuts on each edge
+     * @param threshold   edges shorter than this are dropped
+     * @param contraction distance the vertices are moved toward the barycenter
+     * @return the interleaved coordinates of the smoothed curve
+     */
+    public float[] smooth(List<PVector> curve, int depth, float proportion, float threshold, float contraction) {
+        int size = subdivide(curve, depth, proportion, threshold, contraction);
+        return Arrays.copyOf(front, 2 * size);
+    }
+
+    /**
+     * Smooth a closed curve up to a tolerance, then contract it toward its barycenter
+     * <p>
+     * Chaikin's limit curve stays inside the triangle formed by each corner p_i and its neighbours,
+     * so a corner lying close enough to the chord joining its neighbours is considered converged and
+     * is kept as is: flat parts of the curve stop being subdivided while sharp corners get up to
+     * maxDepth subdivisions.
+     *
+     * @param curve       the vertices of the curve
+     * @param maxDepth    maximum number of subdivisions
+     * @param proportion  position of the cuts on each edge
+     * @param threshold   edges shorter than this are not cut
+     * @param tolerance   maximum distance between the returned curve and the subdivided one
+     * @param contraction distance the vertices are moved toward the barycenter
+     * @return the interleaved coordinates of the smoothed curve
+     */
+    public float[] smoothAdaptive(List<PVector> curve, int maxDepth, float proportion, float threshold,
+                                  float tolerance, float contraction) {
+        int size = subdivideAdaptive(curve, maxDepth, proportion, threshold, tolerance, contraction);
+        return Arrays.copyOf(front, 2 * size);
+    }
+
+    /**
+     * @return the interleaved coordinates of the curve smoothed last, valid until the next smoothing
+     */
+    float[] curve() {
+        return front;
+    }
+
+    // smooth(), leaving the curve in the front buffer: returns its number of vertices
+    int subdivide(List<PVector> curve, int depth, float proportion, float threshold, float contraction) {
+        int size = curve.size();
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            front[2 * i] = curve.get(i).x;
+            front[2 * i + 1] = curve.get(i).y;
+        }
+
+        float sumX = 0;
+        float sumY = 0;
+        for (int k = 0; k < depth; k++) {
+            boolean last = k == depth - 1;
+            ensureCapacity(2 * size);
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                int j = i + 1 == size ? 0 : i + 1;
+                float px = front[2 * i];
+                float py = front[2 * i + 1];
+                float qx = front[2 * j];
+                float qy = front[2 * j + 1];
+
+                float dx = px - qx;
+                float dy = py - qy;
+                if ((float) Math.sqrt(dx * dx + dy * dy) < threshold) {
+                    continue;
+                }
+
+                float ax = px * (1 - proportion) + qx * proportion;
+                float ay = py * (1 - proportion) + qy * proportion;
+                float bx = px * proportion + qx * (1 - proportion);
+                float by = py * proportion + qy * (1 - proportion);
+                back[2 * newSize] = ax;
+                back[2 * newSize + 1] = ay;
+                back[2 * newSize + 2] = bx;
+                back[2 * newSize + 3] = by;
+                newSize += 2;
+
+                // barycenter of the final curve, for the contraction
+                if (last) {
+                    sumX += ax;
+                    sumY += ay;
+                    sumX += bx;
+                    sumY += by;
+                }
+            }
+
+            float[] swap = front;
+            front = back;
+            back = swap;
+            size = newSize;
+        }
+
+        if (depth == 0) {
+            for (int i = 0; i < size; i++) {
+                sumX += front[2 * i];
+                sumY += front[2 * i + 1];
+            }
+        }
+
+        contract(size, sumX / size, sumY / size, contraction);
+        return size;
+    }
+
+    // smoothAdaptive(), leaving the curve in the front buffer: returns its number of vertices
+    int subdivideAdaptive(List<PVector> curve, int maxDepth, float proportion, float threshold,
+                          float tolerance, float contraction) {
+        int size = curve.size();
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            front[2 * i] = curve.get(i).x;
+            front[2 * i + 1] = curve.get(i).y;
+        }
+
+        // the neighbours of a kept corner are still cut, which can double its deviation
+        float squaredTolerance = tolerance * tolerance / 4;
+        boolean converged = false;
+        for (int k = 0; k < maxDepth && !converged; k++) {
+            ensureCapacity(2 * size);
+            converged = true;
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                int h = i == 0 ? size - 1 : i - 1;
+                int j = i + 1 == size ? 0 : i + 1;
+                float hx = front[2 * h];
+                float hy = front[2 * h + 1];
+                float px = front[2 * i];
+                float py = front[2 * i + 1];
+                float qx = front[2 * j];
+                float qy = front[2 * j + 1];
+
+                // distance from p to the chord hq: |ph x pq| / |hq|
+                float cross = (hx - px) * (qy - py) - (hy - py) * (qx - px);
+                float chordX = qx - hx;
+                float chordY = qy - hy;
+                if (cross * cross <= squaredTolerance * (chordX * chordX + chordY * chordY)) {
+                    back[2 * newSize] = px;
+                    back[2 * newSize + 1] = py;
+                    newSize++;
+                    continue;
+                }
+                converged = false;
+
+                // cut on the incoming edge, then on the outgoing edge
+                float dx = hx - px;
+                float dy = hy - py;
+                if ((float) Math.sqrt(dx * dx + dy * dy) >= threshold) {
+                    back[2 * newSize] = hx * proportion + px * (1 - proportion);
+                    back[2 * newSize + 1] = hy * proportion + py * (1 - proportion);
+                    newSize++;
+                }
+                dx = px - qx;
+                dy = py - qy;
+                if ((float) Math.sqrt(dx * dx + dy * dy) >= threshold) {
+                    back[2 * newSize] = px * (1 - proportion) + qx * proportion;
+                    back[2 * newSize + 1] = py * (1 - proportion) + qy * proportion;
+                    newSize++;
+                }
+            }
+
+            float[] swap = front;
+            front = back;
+            back = swap;
+            size = newSize;
+        }
+
+        float sumX = 0;
+        float sumY = 0;
+        for (int i = 0; i < size; i++) {
+            sumX += front[2 * i];
+            sumY += front[2 * i + 1];
+        }
+
+        contract(size, sumX / size, sumY / size, contraction);
+        return size;
+    }
+
+    // move each vertex of the front buffer toward the barycenter
+    private void contract(int size, float barycenterX, float barycenterY, float contraction) {
+        for (int i = 0; i < size; i++) {
+            float dx = front[2 * i] - barycenterX;
+            float dy = front[2 * i + 1] - barycenterY;
+            float magnitude = (float) Math.sqrt(dx * dx + dy * dy);
+            if (magnitude != 0 && magnitude != 1) {
+                dx /= magnitude;
+                dy /= magnitude;
+            }
+            front[2 * i] -= dx * contraction;
+            front[2 * i + 1] -= dy * contraction;
+        }
+    }
+
+    // grow both buffers, keeping the current curve
+    private void ensureCapacity(int vertices) {
+        if (front.length < 2 * vertices) {
+            front = Arrays.copyOf(front, 2 * vertices);
+            back = new float[2 * vertices];
+        }
+    }
+}
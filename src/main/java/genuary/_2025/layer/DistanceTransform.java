@@ -0,0 +1,105 @@
+package genuary._2025.layer;
+
+import java.util.Arrays;
+
+/**
+ * Squared Euclidean distance transform of a binary grid, up to a maximum distance.
+ * <p>
+ * The transform is separable. The distance to the nearest site of the same column comes from a
+ * forward and a backward sweep over the rows (Meijster et al.), which reads the grid in memory
+ * order. Each row then takes the lower envelope of the parabolas rooted at its cells
+ * (Felzenszwalb and Huttenlocher), leaving out the cells already beyond the maximum distance, so
+ * that the cost of the second pass follows the length of the boundaries rather than the area.
+ * The working buffers are kept from one call to the next.
+ */
+public final class DistanceTransform {
+    private float[] f = new float[0];
+    private float[] z = new float[0];
+    private int[] v = new int[0];
+
+    /**
+     * Compute, in place, the squared distance from every cell to the nearest site
+     *
+     * @param grid            row major grid, 0 on the sites and any positive value elsewhere
+     * @param width           number of columns
+     * @param height          number of rows
+     * @param maximumDistance distances beyond this one are clamped to it
+     */
+    public void transform(float[] grid, int width, int height, int maximumDistance) {
+        if (f.length < width) {
+            f = new float[width];
+            z = new float[width + 1];
+            v = new int[width];
+        }
+
+        // distance to the nearest site of the column
+        float far = maximumDistance;
+        for (int x = 0; x < width; x++) {
+            grid[x] = grid[x] == 0 ? 0 : far;
+        }
+        for (int y = 1; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                grid[row + x] = grid[row + x] == 0 ? 0 : Math.min(grid[row - width + x] + 1, far);
+            }
+        }
+        for (int y = height - 2; y >= 0; y--) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                grid[row + x] = Math.min(grid[row + x], grid[row + width + x] + 1);
+            }
+        }
+
+        for (int y = 0; y < height; y++) {
+            transform1D(grid, y * width, width, far);
+        }
+    }
+
+    // lower envelope of the parabolas (q - p)^2 + g[p]^2, sampled in place on a row
+    private void transform1D(float[] grid, int row, int n, float far) {
+        int k = -1;
+        for (int q = 0; q < n; q++) {
+            float g = grid[row + q];
+            // cells beyond the maximum distance cannot bring any other cell under it
+            if (g >= far) continue;
+            f[q] = g * g;
+            if (k < 0) {
+                k = 0;
+                v[0] = q;
+                z[0] = Float.NEGATIVE_INFINITY;
+                z[1] = Float.POSITIVE_INFINITY;
+                continue;
+            }
+
+            float s = intersection(q, v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = intersection(q, v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = Float.POSITIVE_INFINITY;
+        }
+
+        if (k < 0) {
+            Arrays.fill(grid, row, row + n, far * far);
+            return;
+        }
+        // each parabola of the envelope covers the cells up to its intersection with the next one
+        int q = 0;
+        for (int j = 0; j <= k; j++) {
+            int end = j == k ? n : (int) Math.min(Math.floor(z[j + 1]) + 1, n);
+            int p = v[j];
+            for (; q < end; q++) {
+                float distance = q - p;
+                grid[row + q] = Math.min(distance * distance + f[p], far * far);
+            }
+        }
+    }
+
+    // abscissa where the parabolas rooted at q and p cross
+    private float intersection(int q, int p) {
+        return ((f[q] + (float) q * q) - (f[p] + (float) p * p)) / (2f * q - 2f * p);
+    }
+}
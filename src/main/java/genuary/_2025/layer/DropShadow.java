@@ -0,0 +1,148 @@
+package genuary._2025.layer;
+
+import genuary._2025.parameters.Parameters;
+import genuary._2025.parameters.Parameters.Color;
+import processing.awt.PGraphicsJava2D;
+
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Projected shadow of a layer, computed from a distance field instead of stroking its outline.
+ * <p>
+ * The holes of the layer are rasterized once, in device space, and every pixel of a hole gets its
+ * distance to the outline from a distance transform. Stroking the outline PROJECTED_SHADOW_LAYERS
+ * times darkens a pixel at distance d by each stroke whose half weight reaches d, so the shadow
+ * alpha only depends on d: it is tabulated once for a given shadow and scale (so once for all the
+ * layers and frames of a render), and the whole shadow is drawn as a single image. Pixels outside
+ * the holes are left untouched, the layer fill covering them.
+ */
+final class DropShadow {
+    private final DistanceTransform distanceTransform = new DistanceTransform();
+
+    private BufferedImage mask;
+    private BufferedImage shadow;
+    private float[] distances;
+
+    // the last alpha profile, and what it was computed from (see alphaProfile() method)
+    private ProfileKey profileKey;
+    private int[] profile;
+
+    private record ProfileKey(int layers, float strokeWeight, float strokeWeightFactor, Color color, double scale) {
+        ProfileKey(Parameters parameters, double scale) {
+            this(parameters.projectedShadowLayers(), parameters.projectedShadowStrokeWeight(),
+                    parameters.projectedShadowStrokeWeightFactor(), parameters.projectedShadowColor(), scale);
+        }
+    }
+
+    /**
+     * Draw the shadow of a layer
+     *
+     * @param java2D     the renderer
+     * @param outline    the outline of the layer (even-odd: canvas minus the holes)
+     * @param parameters the parameters of the projected shadow
+     */
+    void render(PGraphicsJava2D java2D, Shape outline, Parameters parameters) {
+        int width = java2D.pixelWidth;
+        int height = java2D.pixelHeight;
+        AffineTransform transform = java2D.g2.getTransform();
+        ensureCapacity(width, height);
+
+        // holes at 0, the rest of the layer at 255
+        Graphics2D graphics = mask.createGraphics();
+        graphics.setColor(java.awt.Color.BLACK);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(java.awt.Color.WHITE);
+        graphics.setTransform(transform);
+        graphics.fill(outline);
+        graphics.dispose();
+
+        // one pixel frame around the canvas: the outline runs along its edges
+        int paddedWidth = width + 2;
+        int paddedHeight = height + 2;
+        byte[] holes = ((DataBufferByte) mask.getRaster().getDataBuffer()).getData();
+        Arrays.fill(distances, 0, paddedWidth * paddedHeight, 0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                distances[(y + 1) * paddedWidth + x + 1] = holes[y * width + x] == 0 ? 1 : 0;
+            }
+        }
+
+        // squared distances between pixel centers are integers: the shadow is looked up
+        ProfileKey key = new ProfileKey(parameters, Math.sqrt(Math.abs(transform.getDeterminant())));
+        if (!key.equals(profileKey)) {
+            profile = alphaProfile(parameters, key.scale());
+            profileKey = key;
+        }
+        int[] profile = this.profile;
+        int maximumDistance = (int) Math.ceil(Math.sqrt(profile.length));
+        distanceTransform.transform(distances, paddedWidth, paddedHeight, maximumDistance);
+
+        int[] pixels = ((DataBufferInt) shadow.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = (y + 1) * paddedWidth + x + 1;
+                float squaredDistance = distances[i];
+                if (squaredDistance == 0) {
+                    // pixels along the outline are only partly covered by the layer fill
+                    boolean edge = distances[i - 1] == 1 || distances[i + 1] == 1
+                            || distances[i - paddedWidth] == 1 || distances[i + paddedWidth] == 1;
+                    pixels[y * width + x] = edge ? profile[1] : 0;
+                } else {
+                    pixels[y * width + x] = squaredDistance < profile.length ? profile[(int) squaredDistance] : 0;
+                }
+            }
+        }
+
+        Graphics2D g2 = java2D.g2;
+        g2.setTransform(new AffineTransform());
+        g2.drawImage(shadow, 0, 0, null);
+        g2.setTransform(transform);
+    }
+
+    /**
+     * Color of the shadow for each squared distance between a hole pixel and the nearest pixel
+     * outside the hole, the outline lying half a pixel before the latter
+     */
+    private static int[] alphaProfile(Parameters parameters, double scale) {
+        double maximumRadius = parameters.projectedShadowStrokeWeight() * scale / 2;
+        int[] profile = new int[(int) Math.ceil((maximumRadius + 1.5) * (maximumRadius + 1.5)) + 1];
+
+        Color color = parameters.projectedShadowColor();
+        double alpha = color.alpha() / 255;
+        for (int squaredDistance = 1; squaredDistance < profile.length; squaredDistance++) {
+            double distance = Math.sqrt(squaredDistance) - .5;
+
+            // alpha of the successive strokes, weighted by their anti-aliased coverage
+            double transparency = 1;
+            for (int i = 0; i < parameters.projectedShadowLayers(); i++) {
+                double radius = (parameters.projectedShadowStrokeWeight()
+                        - parameters.projectedShadowStrokeWeightFactor() * i) * scale / 2;
+                double coverage = Math.min(Math.max(radius - distance + .5, 0), 1);
+                transparency *= 1 - alpha * coverage;
+            }
+            profile[squaredDistance] = premultiplied(color, 1 - transparency);
+        }
+        return profile;
+    }
+
+    private static int premultiplied(Color color, double alpha) {
+        return (int) Math.round(alpha * 255) << 24
+                | (int) Math.round(alpha * color.red()) << 16
+                | (int) Math.round(alpha * color.green()) << 8
+                | (int) Math.round(alpha * color.blue());
+    }
+
+    private void ensureCapacity(int width, int height) {
+        if (mask == null || mask.getWidth() != width || mask.getHeight() != height) {
+            mask = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+            shadow = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            distances = new float[(width + 2) * (height + 2)];
+        }
+    }
+}
@@ -1,75 +1,422 @@
 package genuary._2025.layer;
 
-import processing.core.PApplet;
+import genuary._2025.parameters.Parameters;
+import genuary._2025.parameters.Parameters.Color;
+import genuary._2025.save.SvgWriter;
+import genuary._2025.statistics.Stage;
+import genuary._2025.statistics.Statistics;
+import processing.awt.PGraphicsJava2D;
+import processing.core.PGraphics;
 import processing.core.PVector;
 import voronoi.Delaunay;
 
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.geom.Path2D;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
-import static genuary._2025.parameters.Parameters.*;
 import static processing.core.PConstants.CLOSE;
 
 public class Layer {
 
-    private static PApplet pApplet;
-    private List<Polygon> polygons;
+    // distance field buffers, reused by all the layers rendered on a thread
+    private static final ThreadLocal<DropShadow> DROP_SHADOW = ThreadLocal.withInitial(DropShadow::new);
 
-    public Layer() {
-        polygons = new ArrayList<>();
-        initializeLayer();
+    private final Parameters parameters;
+
+    // index of the layer, in rendering order
+    private final int index;
+
+    private final List<Polygon> polygons;
+
+    // time, allocations and counts of the stages of this layer
+    private final Statistics statistics = new Statistics();
+
+    // bounding box of each polygon (minX, minY, maxX, maxY), to cull them out of a tile
+    private float[] bounds;
+
+    // outline of the layer (canvas minus the polygons), built once for all the rendering passes
+    private Path2D.Float path;
+
+    // colours of the last Java2D fill and stroke of the layer, reused while the style is the same
+    private java.awt.Color fillColor;
+    private java.awt.Color strokeColor;
+
+    /**
+     * Build the geometry of a layer
+     *
+     * @param parameters the parameters of the sketch
+     * @param index      the index of the layer, in rendering order
+     * @param random     the random stream of this layer
+     */
+    public Layer(Parameters parameters, int index, SplittableRandom random) {
+        this.parameters = parameters;
+        this.index = index;
+
+        Statistics.Measure measure = statistics.start(Stage.SITES, index);
+        List<PVector> sites = generateSites(parameters, random);
+        measure.stop(sites.size());
+
+        measure = statistics.start(Stage.DELAUNAY, index);
+        Delaunay delaunay = triangulate(sites);
+        measure.stop(sites.size(), delaunay.getTotalWalkSteps(), delaunay.getTotalFlips());
+
+        measure = statistics.start(Stage.VORONOI, index);
+        List<List<PVector>> cells = computeCells(parameters, delaunay);
+        measure.stop(cells.size());
+
+        measure = statistics.start(Stage.CHAIKIN, index);
+        List<Polygon> smoothed = smoothCells(parameters, cells);
+        measure.stop(vertexCount(smoothed));
+
+        // only measured when enabled, the stage being left out of the statistics otherwise
+        if (parameters.simplificationTolerance() > 0) {
+            measure = statistics.start(Stage.SIMPLIFY, index);
+            polygons = simplifyPolygons(parameters, smoothed);
+            measure.stop(vertexCount());
+        } else {
+            polygons = smoothed;
+        }
+
+        initializeBounds();
+    }
+
+    /**
+     * Build a layer from its smoothed (and simplified) polygons
+     *
+     * @param parameters the parameters of the sketch
+     * @param index      the index of the layer, in rendering order
+     * @param polygons   the holes of the layer, may be changed later on (see {@link #invalidate()})
+     */
+    public Layer(Parameters parameters, int index, List<Polygon> polygons) {
+        this.parameters = parameters;
+        this.index = index;
+        this.polygons = polygons;
+        initializeBounds();
     }
 
-    public static void setPApplet(PApplet pApplet) {
-        Layer.pApplet = pApplet;
+    /**
+     * Build the geometry of the layers in parallel (fork-join common pool).
+     * Each layer draws from its own stream split from the seed, so the result does not depend
+     * on the number of threads.
+     *
+     * @param parameters the parameters of the sketch (NUMBER_OF_LAYERS layers are built)
+     * @param seed       seed of the sketch
+     * @return the layers, in rendering order
+     */
+    public static List<Layer> generateLayers(Parameters parameters, long seed) {
+        List<SplittableRandom> randoms = splitRandom(seed, parameters.numberOfLayers());
+        return IntStream.range(0, randoms.size()).parallel()
+                .mapToObj(i -> new Layer(parameters, i, randoms.get(i)))
+                .toList();
     }
 
-    private void initializeLayer() {
+    /**
+     * @return the random streams of the layers of a seed, in rendering order
+     */
+    public static List<SplittableRandom> splitRandom(long seed, int numberOfLayers) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return Stream.generate(random::split).limit(numberOfLayers).toList();
+    }
+
+    /**
+     * First stage of the geometry: the sites of the cuts, drawn inside the margin
+     */
+    public static List<PVector> generateSites(Parameters parameters, SplittableRandom random) {
+        float margin = parameters.margin();
+        int width = parameters.width();
+        int height = parameters.height();
+
+        List<PVector> sites = new ArrayList<>();
+        for (int k = 0; k < parameters.numberOfCuts(); k++) {
+            sites.add(new PVector(random.nextFloat(margin, width - margin),
+                    random.nextFloat(margin, height - margin)));
+        }
+        return sites;
+    }
+
+    /**
+     * Second stage of the geometry: the Voronoi regions of the sites
+     */
+    public static List<List<PVector>> computeCells(Parameters parameters, List<PVector> sites) {
+        return computeCells(parameters, triangulate(sites));
+    }
+
+    private static Delaunay triangulate(List<PVector> sites) {
         Delaunay delaunay = new Delaunay();
+        delaunay.insertAll(sites);
+        return delaunay;
+    }
+
+    /**
+     * Second stage of the geometry, from a triangulation of the sites (kept up to date by the caller)
+     */
+    public static List<List<PVector>> computeCells(Parameters parameters, Delaunay delaunay) {
+        float margin = parameters.margin();
 
-        for (int k = 0; k < NUMBER_OF_CUTS; k++) {
-            delaunay.insertPoint(new PVector(pApplet.random(MARGIN, WIDTH - MARGIN),
-                    pApplet.random(MARGIN, HEIGHT - MARGIN)));
+        // regions are clipped a margin away from the canvas, so that only visible geometry gets smoothed
+        return delaunay.computeVoronoi(-margin, -margin, parameters.width() + margin,
+                parameters.height() + margin);
+    }
+
+    /**
+     * Third stage of the geometry: the regions smoothed and contracted into the holes of the layer
+     */
+    public static List<Polygon> smoothCells(Parameters parameters, List<List<PVector>> cells) {
+        return cells.stream()
+                .map(region -> new Polygon(parameters, region))
+                .toList();
+    }
+
+    /**
+     * Fourth stage of the geometry: the vertices of the smoothed polygons lying within
+     * SIMPLIFICATION_TOLERANCE of straight runs dropped (none when it is 0)
+     */
+    public static List<Polygon> simplifyPolygons(Parameters parameters, List<Polygon> polygons) {
+        if (parameters.simplificationTolerance() <= 0) {
+            return polygons;
         }
+        return polygons.stream()
+                .map(polygon -> polygon.simplify(parameters.simplificationTolerance()))
+                .toList();
+    }
 
-        polygons = delaunay.computeVoronoi().stream().map(Polygon::new).toList();
+    /**
+     * @return the number of vertices of the polygons
+     */
+    public int vertexCount() {
+        return vertexCount(polygons);
     }
 
-    public void render(Color color) {
+    /**
+     * @return the time, allocations and counts of the stages of this layer (building and rendering)
+     */
+    public Statistics statistics() {
+        return statistics;
+    }
+
+    private static int vertexCount(List<Polygon> polygons) {
+        return polygons.stream().mapToInt(Polygon::vertexCount).sum();
+    }
+
+    /**
+     * Update the bounds and the outline of the layer once its polygons changed (only for a layer
+     * built from a modifiable list of polygons). The buffers of the outline are kept.
+     */
+    public void invalidate() {
+        initializeBounds();
+        if (path != null) {
+            path.reset();
+            appendOutline(path, polygons, 0, 0, parameters.width(), parameters.height());
+        }
+    }
+
+    private void initializeBounds() {
+        if (bounds == null || bounds.length != 4 * polygons.size()) {
+            bounds = new float[4 * polygons.size()];
+        }
+        for (int k = 0; k < polygons.size(); k++) {
+            Polygon polygon = polygons.get(k);
+            float minX = Float.POSITIVE_INFINITY;
+            float minY = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY;
+            float maxY = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < polygon.vertexCount(); i++) {
+                minX = Math.min(minX, polygon.x(i));
+                minY = Math.min(minY, polygon.y(i));
+                maxX = Math.max(maxX, polygon.x(i));
+                maxY = Math.max(maxY, polygon.y(i));
+            }
+            bounds[4 * k] = minX;
+            bounds[4 * k + 1] = minY;
+            bounds[4 * k + 2] = maxX;
+            bounds[4 * k + 3] = maxY;
+        }
+    }
+
+    /**
+     * Draw the layer with its shadows
+     *
+     * @param graphics the renderer, between beginDraw() and endDraw()
+     * @param color    the color of the layer
+     */
+    public void render(PGraphics graphics, Color color) {
+        render(graphics, color, polygons, path());
+    }
+
+    /**
+     * Draw the part of the layer with its shadows lying in a region of the canvas, leaving out the
+     * polygons out of this region
+     *
+     * @param graphics the renderer, between beginDraw() and endDraw(), clipped to the region
+     * @param color    the color of the layer
+     * @param minX, minY, maxX, maxY summits of the region
+     */
+    public void render(PGraphics graphics, Color color, float minX, float minY, float maxX, float maxY) {
+        List<Polygon> visible = new ArrayList<>();
+        for (int k = 0; k < polygons.size(); k++) {
+            if (bounds[4 * k] <= maxX && bounds[4 * k + 2] >= minX
+                    && bounds[4 * k + 1] <= maxY && bounds[4 * k + 3] >= minY) {
+                visible.add(polygons.get(k));
+            }
+        }
+
+        // the canvas rectangle only matters inside the region
+        render(graphics, color, visible, outline(visible, Math.max(minX, 0), Math.max(minY, 0),
+                Math.min(maxX, parameters.width()), Math.min(maxY, parameters.height())));
+    }
+
+    private void render(PGraphics graphics, Color color, List<Polygon> visible, Path2D.Float outline) {
+        int vertexCount = vertexCount(visible);
+        Statistics.Measure measure = statistics.start(Stage.SHADOW, index);
+
         // Shadow underneath layers
-        pApplet.noStroke();
-        pApplet.fill(DEPTH_SHADOW_COLOR.red(), DEPTH_SHADOW_COLOR.green(), DEPTH_SHADOW_COLOR.blue(),
-                DEPTH_SHADOW_COLOR.alpha());
-        pApplet.rect(0, 0, WIDTH, HEIGHT);
+        graphics.noStroke();
+        Color depthShadowColor = parameters.depthShadowColor();
+        graphics.fill(depthShadowColor.red(), depthShadowColor.green(), depthShadowColor.blue(),
+                depthShadowColor.alpha());
+        graphics.rect(0, 0, parameters.width(), parameters.height());
 
         // Drop shadow
-        for (int i = 0; i < PROJECTED_SHADOW_LAYERS; i++) {
-            pApplet.strokeWeight(PROJECTED_SHADOW_STROKE_WEIGHT - PROJECTED_SHADOW_STROKE_WEIGHT_FACTOR * i);
-            pApplet.stroke(PROJECTED_SHADOW_COLOR.red(), PROJECTED_SHADOW_COLOR.green(),
-                    PROJECTED_SHADOW_COLOR.blue(), PROJECTED_SHADOW_COLOR.alpha());
-            pApplet.noFill();
-            drawLayer();
+        if (parameters.projectedShadowDistanceField() && graphics instanceof PGraphicsJava2D java2D) {
+            DROP_SHADOW.get().render(java2D, outline, parameters);
+        } else {
+            Color projectedShadowColor = parameters.projectedShadowColor();
+            for (int i = 0; i < parameters.projectedShadowLayers(); i++) {
+                graphics.strokeWeight(parameters.projectedShadowStrokeWeight()
+                        - parameters.projectedShadowStrokeWeightFactor() * i);
+                graphics.stroke(projectedShadowColor.red(), projectedShadowColor.green(),
+                        projectedShadowColor.blue(), projectedShadowColor.alpha());
+                graphics.noFill();
+                drawLayer(graphics, visible, outline);
+            }
         }
 
+        measure.stop(vertexCount);
+
         // Draw layer
-        pApplet.noStroke();
-        pApplet.fill(color.red(), color.green(), color.blue(), color.alpha());
-        drawLayer();
+        measure = statistics.start(Stage.FILL, index);
+        graphics.noStroke();
+        graphics.fill(color.red(), color.green(), color.blue(), color.alpha());
+        drawLayer(graphics, visible, outline);
+        measure.stop(vertexCount);
+    }
+
+    /**
+     * Write the layer with its shadows as vector graphics: its outline is defined once, then
+     * stroked for the projected shadow (whatever PROJECTED_SHADOW_DISTANCE_FIELD, the strokes being
+     * what the distance field reproduces) and filled
+     *
+     * @param svg   the document, the layers under this one being already written
+     * @param color the color of the layer
+     */
+    public void export(SvgWriter svg, Color color) throws IOException {
+        String id = "layer" + index;
+        svg.beginPath(id);
+        svg.moveTo(0, 0);
+        svg.lineTo(0, parameters.height());
+        svg.lineTo(parameters.width(), parameters.height());
+        svg.lineTo(parameters.width(), 0);
+        svg.closePath();
+        for (Polygon polygon : polygons) {
+            if (polygon.vertexCount() == 0) continue;
+
+            svg.moveTo(polygon.x(0), polygon.y(0));
+            for (int i = 1; i < polygon.vertexCount(); i++) {
+                svg.lineTo(polygon.x(i), polygon.y(i));
+            }
+            svg.closePath();
+        }
+        svg.endPath();
+
+        // Shadow underneath layers
+        svg.rect(0, 0, parameters.width(), parameters.height(), parameters.depthShadowColor());
+
+        // Drop shadow
+        for (int i = 0; i < parameters.projectedShadowLayers(); i++) {
+            svg.stroke(id, parameters.projectedShadowColor(), parameters.projectedShadowStrokeWeight()
+                    - parameters.projectedShadowStrokeWeightFactor() * i);
+        }
+
+        // Layer
+        svg.fill(id, color);
+    }
+
+    private void drawLayer(PGraphics graphics, List<Polygon> visible, Path2D.Float outline) {
+        // Java2D: fill/stroke the retained path with the current style
+        // (the paint of the Graphics2D is restored for the next Processing draws)
+        if (graphics instanceof PGraphicsJava2D java2D) {
+            Graphics2D g2 = java2D.g2;
+            Paint paint = g2.getPaint();
+            if (java2D.fill) {
+                fillColor = awtColor(fillColor, java2D.fillColor);
+                g2.setPaint(fillColor);
+                g2.fill(outline);
+            }
+            if (java2D.stroke) {
+                strokeColor = awtColor(strokeColor, java2D.strokeColor);
+                g2.setPaint(strokeColor);
+                g2.draw(outline);
+            }
+            g2.setPaint(paint);
+            return;
+        }
+
+        graphics.beginShape();
+        graphics.vertex(0, 0);
+        graphics.vertex(0, parameters.height());
+        graphics.vertex(parameters.width(), parameters.height());
+        graphics.vertex(parameters.width(), 0);
+        for (Polygon polygon : visible) {
+            graphics.beginContour();
+            for (int i = 0; i < polygon.vertexCount(); i++) {
+                graphics.vertex(polygon.x(i), polygon.y(i));
+            }
+            graphics.endContour();
+        }
+        graphics.endShape(CLOSE);
+    }
+
+    // the cached colour, unless the style of the graphics changed since
+    private static java.awt.Color awtColor(java.awt.Color cached, int argb) {
+        return cached != null && cached.getRGB() == argb ? cached : new java.awt.Color(argb, true);
+    }
+
+    private Path2D.Float path() {
+        if (path == null) {
+            path = outline(polygons, 0, 0, parameters.width(), parameters.height());
+        }
+        return path;
     }
 
-    private void drawLayer() {
-        pApplet.beginShape();
-        pApplet.vertex(0, 0);
-        pApplet.vertex(0, HEIGHT);
-        pApplet.vertex(WIDTH, HEIGHT);
-        pApplet.vertex(WIDTH, 0);
+    // even-odd outline: the rectangle minus the polygons
+    private static Path2D.Float outline(List<Polygon> polygons, float minX, float minY, float maxX, float maxY) {
+        int vertexCount = vertexCount(polygons);
+        Path2D.Float outline = new Path2D.Float(Path2D.WIND_EVEN_ODD, 4 + vertexCount);
+        appendOutline(outline, polygons, minX, minY, maxX, maxY);
+        return outline;
+    }
+
+    private static void appendOutline(Path2D.Float outline, List<Polygon> polygons, float minX, float minY,
+                                      float maxX, float maxY) {
+        outline.moveTo(minX, minY);
+        outline.lineTo(minX, maxY);
+        outline.lineTo(maxX, maxY);
+        outline.lineTo(maxX, minY);
+        outline.closePath();
         for (Polygon polygon : polygons) {
-            pApplet.beginContour();
-            for (PVector vertex : polygon.vertices()) {
-                pApplet.vertex(vertex.x, vertex.y);
+            if (polygon.vertexCount() == 0) continue;
+
+            outline.moveTo(polygon.x(0), polygon.y(0));
+            for (int i = 1; i < polygon.vertexCount(); i++) {
+                outline.lineTo(polygon.x(i), polygon.y(i));
             }
-            pApplet.endContour();
+            outline.closePath();
         }
-        pApplet.endShape(CLOSE);
     }
 }
@@ -1,49 +1,69 @@
 package genuary._2025.layer;
 
+import genuary._2025.parameters.Parameters;
 import processing.core.PVector;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import static genuary._2025.parameters.Parameters.*;
-import static processing.core.PVector.dist;
+/**
+ * Smoothed and contracted Voronoi region, stored as interleaved coordinates (x0, y0, x1, y1...).
+ * The coordinates may come from a {@link VertexPool}, the array being longer than the polygon.
+ */
+public record Polygon(float[] coordinates, int vertexCount) {
 
-public record Polygon(List<PVector> vertices) {
+    // subdivision buffers, reused by all the polygons built on a thread
+    private static final ThreadLocal<Chaikin> CHAIKIN = ThreadLocal.withInitial(Chaikin::new);
+    private static final ThreadLocal<Simplifier> SIMPLIFIER = ThreadLocal.withInitial(Simplifier::new);
 
-    public Polygon(List<PVector> vertices) {
-
-        List<PVector> curve = new ArrayList<>(vertices);
-        for (int k = 0; k < CHAIKIN_DEPTH; k++) {
-            curve = chaikin(curve);
-        }
+    public Polygon(float[] coordinates) {
+        this(coordinates, coordinates.length / 2);
+    }
 
-        this.vertices = curve;
+    public Polygon(Parameters parameters, List<PVector> vertices) {
+        this(parameters.chaikinTolerance() > 0
+                ? CHAIKIN.get().smoothAdaptive(vertices, parameters.chaikinDepth(), parameters.chaikinProportion(),
+                parameters.chaikinThreshold(), parameters.chaikinTolerance(), parameters.contraction())
+                : CHAIKIN.get().smooth(vertices, parameters.chaikinDepth(), parameters.chaikinProportion(),
+                parameters.chaikinThreshold(), parameters.contraction()));
+    }
 
-        contract();
+    /**
+     * @param tolerance maximum distance between a dropped vertex and the simplified polygon (0 keeps them all)
+     * @return the polygon without the vertices lying within the tolerance of its simplified outline
+     */
+    public Polygon simplify(float tolerance) {
+        float[] simplified = SIMPLIFIER.get().simplify(coordinates, vertexCount, tolerance);
+        return simplified == coordinates ? this : new Polygon(simplified);
     }
 
-    private List<PVector> chaikin(List<PVector> curve) {
-        List<PVector> newCurve = new ArrayList<>();
-        for (int i = 0; i < curve.size(); i++) {
-            PVector p = curve.get(i);
-            PVector q = curve.get((i + 1) % curve.size());
-            if (dist(p, q) < CHAIKIN_THRESHOLD) {
-                continue;
-            }
-            newCurve.add(PVector.add(PVector.mult(p, 1 - CHAIKIN_PROPORTION), PVector.mult(q, CHAIKIN_PROPORTION)));
-            newCurve.add(PVector.add(PVector.mult(p, CHAIKIN_PROPORTION), PVector.mult(q, 1 - CHAIKIN_PROPORTION)));
-        }
-        return newCurve;
+    /**
+     * Smooth, contract and simplify a region as the constructor followed by {@link #simplify(float)}
+     * do, with another maximum subdivision depth, into a buffer of a pool
+     *
+     * @param parameters the parameters of the sketch
+     * @param depth      the (maximum) number of subdivisions, instead of CHAIKIN_DEPTH
+     * @param vertices   the vertices of the region
+     * @param pool       the pool the coordinates are taken from, to be given back with the polygon
+     */
+    public static Polygon smooth(Parameters parameters, int depth, List<PVector> vertices, VertexPool pool) {
+        Chaikin chaikin = CHAIKIN.get();
+        int size = parameters.chaikinTolerance() > 0
+                ? chaikin.subdivideAdaptive(vertices, depth, parameters.chaikinProportion(),
+                parameters.chaikinThreshold(), parameters.chaikinTolerance(), parameters.contraction())
+                : chaikin.subdivide(vertices, depth, parameters.chaikinProportion(), parameters.chaikinThreshold(),
+                parameters.contraction());
+        size = SIMPLIFIER.get().simplifyInPlace(chaikin.curve(), size, parameters.simplificationTolerance());
+
+        float[] coordinates = pool.take(size);
+        System.arraycopy(chaikin.curve(), 0, coordinates, 0, 2 * size);
+        return new Polygon(coordinates, size);
     }
 
-    private void contract() {
-        PVector barycenter = vertices.stream()
-                .reduce((p, q) -> PVector.add(p, q)).orElseThrow();
-        barycenter.div(vertices.size());
+    public float x(int i) {
+        return coordinates[2 * i];
+    }
 
-        for (PVector vertex : vertices) {
-            PVector direction = PVector.sub(vertex, barycenter);
-            vertex.sub(direction.setMag(CONTRACTION));
-        }
+    public float y(int i) {
+        return coordinates[2 * i + 1];
     }
 }
@@ -0,0 +1,151 @@
+package genuary._2025.layer;
+
+import java.util.Arrays;
+
+/**
+ * Ramer–Douglas–Peucker simplification of closed curves on interleaved coordinates (x0, y0, x1, y1...).
+ * <p>
+ * The ranges left to split are kept on a stack of indices and the kept vertices in a mask, both
+ * reused from one polygon to the next, so that simplifying only allocates the returned array.
+ */
+public final class Simplifier {
+    private int[] stack = new int[0];
+    private boolean[] kept = new boolean[0];
+
+    /**
+     * Drop the vertices of a closed curve lying close to the chords of the simplified one: every
+     * vertex of the curve stays within the tolerance of the returned curve.
+     *
+     * @param coordinates the interleaved coordinates of the curve
+     * @param size        the number of vertices of the curve
+     * @param tolerance   maximum distance between a dropped vertex and the simplified curve
+     * @return the interleaved coordinates of the simplified curve (the same array when nothing is dropped)
+     */
+    public float[] simplify(float[] coordinates, int size, float tolerance) {
+        int newSize = mark(coordinates, size, tolerance);
+        if (newSize == size) {
+            return coordinates;
+        }
+
+        float[] simplified = new float[2 * newSize];
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (kept[i]) {
+                simplified[j++] = coordinates[2 * i];
+                simplified[j++] = coordinates[2 * i + 1];
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Simplify a closed curve as {@link #simplify(float[], int, float)}, moving the kept vertices to
+     * the front of its array
+     *
+     * @return the number of vertices of the simplified curve
+     */
+    public int simplifyInPlace(float[] coordinates, int size, float tolerance) {
+        int newSize = mark(coordinates, size, tolerance);
+        if (newSize == size) {
+            return size;
+        }
+
+        // kept vertices only move backward
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (kept[i]) {
+                coordinates[j++] = coordinates[2 * i];
+                coordinates[j++] = coordinates[2 * i + 1];
+            }
+        }
+        return newSize;
+    }
+
+    // mark the vertices to keep, returns their number
+    private int mark(float[] coordinates, int size, float tolerance) {
+        if (size <= 3 || tolerance <= 0) {
+            return size;
+        }
+        ensureCapacity(size);
+        Arrays.fill(kept, 0, size, false);
+
+        // a closed curve has no end points: split it at the vertex farthest from the first one
+        float x0 = coordinates[0];
+        float y0 = coordinates[1];
+        int farthest = 0;
+        float maximum = -1;
+        for (int i = 1; i < size; i++) {
+            float dx = coordinates[2 * i] - x0;
+            float dy = coordinates[2 * i + 1] - y0;
+            if (dx * dx + dy * dy > maximum) {
+                maximum = dx * dx + dy * dy;
+                farthest = i;
+            }
+        }
+        kept[0] = true;
+        kept[farthest] = true;
+
+        // ranges (first, last) of the two halves, the index size standing for the first vertex
+        float squaredTolerance = tolerance * tolerance;
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = farthest;
+        stack[top++] = farthest;
+        stack[top++] = size;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            if (last - first < 2) {
+                continue;
+            }
+
+            float ax = coordinates[2 * first];
+            float ay = coordinates[2 * first + 1];
+            float bx = coordinates[2 * (last % size)];
+            float by = coordinates[2 * (last % size) + 1];
+            float abX = bx - ax;
+            float abY = by - ay;
+            float squaredLength = abX * abX + abY * abY;
+
+            // vertex of the range farthest from the segment ab
+            int split = -1;
+            float splitDistance = squaredTolerance;
+            for (int i = first + 1; i < last; i++) {
+                float apX = coordinates[2 * i] - ax;
+                float apY = coordinates[2 * i + 1] - ay;
+                float t = squaredLength == 0 ? 0 : Math.min(Math.max((apX * abX + apY * abY) / squaredLength, 0), 1);
+                float dx = apX - t * abX;
+                float dy = apY - t * abY;
+                float squaredDistance = dx * dx + dy * dy;
+                if (squaredDistance > splitDistance) {
+                    splitDistance = squaredDistance;
+                    split = i;
+                }
+            }
+
+            if (split >= 0) {
+                kept[split] = true;
+                stack[top++] = first;
+                stack[top++] = split;
+                stack[top++] = split;
+                stack[top++] = last;
+            }
+        }
+
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (kept[i]) {
+                newSize++;
+            }
+        }
+        return newSize;
+    }
+
+    // each split pushes two ranges in place of one: the stack never holds more ranges than vertices
+    private void ensureCapacity(int vertices) {
+        if (kept.length < vertices) {
+            kept = new boolean[vertices];
+            stack = new int[2 * vertices + 4];
+        }
+    }
+}
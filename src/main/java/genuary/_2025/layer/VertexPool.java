@@ -0,0 +1,45 @@
+package genuary._2025.layer;
+
+import java.util.Arrays;
+
+/**
+ * Coordinate buffers given back by the polygons replaced, to be reused by the next ones.
+ * <p>
+ * A buffer is taken from the smallest free one large enough, and allocated with some headroom
+ * otherwise, so that a polygon growing by a few vertices from one frame to the next still fits.
+ * Not thread safe: one pool per layer.
+ */
+public final class VertexPool {
+    private float[][] free = new float[16][];
+    private int size;
+
+    /**
+     * @return a buffer of at least 2 * vertices floats, of unspecified content
+     */
+    public float[] take(int vertices) {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (free[i].length >= 2 * vertices && (best < 0 || free[i].length < free[best].length)) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            return new float[2 * (vertices + vertices / 4)];
+        }
+
+        float[] buffer = free[best];
+        free[best] = free[--size];
+        free[size] = null;
+        return buffer;
+    }
+
+    /**
+     * Give back a buffer no longer used
+     */
+    public void give(float[] buffer) {
+        if (size == free.length) {
+            free = Arrays.copyOf(free, 2 * size);
+        }
+        free[size++] = buffer;
+    }
+}
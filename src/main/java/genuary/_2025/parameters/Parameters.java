@@ -1,43 +1,78 @@
 package genuary._2025.parameters;
 
-import java.lang.reflect.Field;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
-public final class Parameters {
-    public static final long SEED = 20250102;
-    public static final int WIDTH = 2025;
-    public static final int HEIGHT = 2025;
-    public static final float MARGIN = 200;
-    public static final int NUMBER_OF_LAYERS = 10;
-    public static final int NUMBER_OF_CUTS = 10;
-    public static final int CHAIKIN_DEPTH = 10;
-    public static final float CHAIKIN_PROPORTION = .2f;
-    public static final float CHAIKIN_THRESHOLD = 3;
-    public static final float CONTRACTION = 5f;
-    public static final Color BACKGROUND_COLOR = new Color(0);
-    public static final Color LAYER_COLOR = new Color(235);
-    public static final Color DEPTH_SHADOW_COLOR = new Color(0, 50);
-    public static final int PROJECTED_SHADOW_LAYERS = 10;
-    public static final float PROJECTED_SHADOW_STROKE_WEIGHT = 30f;
-    public static final float PROJECTED_SHADOW_STROKE_WEIGHT_FACTOR = 3f;
-    public static final Color PROJECTED_SHADOW_COLOR = new Color(0, 10);
+/**
+ * Settings of the sketch, saved next to each render in the json shape of toJsonMap()
+ * ({"Parameters": {"SEED": ..., "WIDTH": ...}}) and loadable back from it.
+ */
+public record Parameters(
+        @JsonProperty("SEED") long seed,
+        @JsonProperty("WIDTH") int width,
+        @JsonProperty("HEIGHT") int height,
+        @JsonProperty("MARGIN") float margin,
+        @JsonProperty("NUMBER_OF_LAYERS") int numberOfLayers,
+        @JsonProperty("NUMBER_OF_CUTS") int numberOfCuts,
+        @JsonProperty("CHAIKIN_DEPTH") int chaikinDepth,
+        @JsonProperty("CHAIKIN_PROPORTION") float chaikinProportion,
+        @JsonProperty("CHAIKIN_THRESHOLD") float chaikinThreshold,
+        @JsonProperty("CHAIKIN_TOLERANCE") float chaikinTolerance,
+        @JsonProperty("CONTRACTION") float contraction,
+        @JsonProperty("SIMPLIFICATION_TOLERANCE") float simplificationTolerance,
+        @JsonProperty("BACKGROUND_COLOR") Color backgroundColor,
+        @JsonProperty("LAYER_COLOR") Color layerColor,
+        @JsonProperty("DEPTH_SHADOW_COLOR") Color depthShadowColor,
+        @JsonProperty("PROJECTED_SHADOW_LAYERS") int projectedShadowLayers,
+        @JsonProperty("PROJECTED_SHADOW_STROKE_WEIGHT") float projectedShadowStrokeWeight,
+        @JsonProperty("PROJECTED_SHADOW_STROKE_WEIGHT_FACTOR") float projectedShadowStrokeWeightFactor,
+        @JsonProperty("PROJECTED_SHADOW_COLOR") Color projectedShadowColor,
+        @JsonProperty("PROJECTED_SHADOW_DISTANCE_FIELD") boolean projectedShadowDistanceField) {
 
     /**
-     * Helper method to extract the constants in order to save them to a json file
-     *
-     * @return a Map of the constants (name -> value)
+     * The parameters of the sketch when none are loaded
      */
-    public static Map<String, Object> toJsonMap() throws IllegalAccessException {
-        Map<String, Object> map = new HashMap<>();
+    public static final Parameters DEFAULT = new Parameters(
+            20250102, // SEED
+            2025, // WIDTH
+            2025, // HEIGHT
+            200, // MARGIN
+            10, // NUMBER_OF_LAYERS
+            10, // NUMBER_OF_CUTS
+            10, // CHAIKIN_DEPTH
+            .2f, // CHAIKIN_PROPORTION
+            3, // CHAIKIN_THRESHOLD
+            0, // CHAIKIN_TOLERANCE
+            5f, // CONTRACTION
+            0, // SIMPLIFICATION_TOLERANCE
+            new Color(0), // BACKGROUND_COLOR
+            new Color(235), // LAYER_COLOR
+            new Color(0, 50), // DEPTH_SHADOW_COLOR
+            10, // PROJECTED_SHADOW_LAYERS
+            30f, // PROJECTED_SHADOW_STROKE_WEIGHT
+            3f, // PROJECTED_SHADOW_STROKE_WEIGHT_FACTOR
+            new Color(0, 10), // PROJECTED_SHADOW_COLOR
+            false); // PROJECTED_SHADOW_DISTANCE_FIELD
 
-        Field[] declaredFields = Parameters.class.getDeclaredFields();
-        for (Field field : declaredFields) {
-            map.put(field.getName(), field.get(Parameters.class));
-        }
+    /**
+     * @return the same parameters with another seed
+     */
+    public Parameters withSeed(long seed) {
+        return new Parameters(seed, width, height, margin, numberOfLayers, numberOfCuts, chaikinDepth,
+                chaikinProportion, chaikinThreshold, chaikinTolerance, contraction, simplificationTolerance,
+                backgroundColor, layerColor, depthShadowColor, projectedShadowLayers, projectedShadowStrokeWeight,
+                projectedShadowStrokeWeightFactor, projectedShadowColor, projectedShadowDistanceField);
+    }
 
-        return Collections.singletonMap(Parameters.class.getSimpleName(), map);
+    /**
+     * Helper method to wrap the parameters in order to save them to a json file
+     *
+     * @return a Map of the parameters under the class name
+     */
+    public Map<String, Parameters> toJsonMap() {
+        return Collections.singletonMap(Parameters.class.getSimpleName(), this);
     }
 
     public record Color(float red, float green, float blue, float alpha) {
@@ -0,0 +1,379 @@
+package genuary._2025.save;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * PNG writer compressing the image on several cores (as pigz does).
+ * <p>
+ * The scanlines are cut into chunks of rows, filtered and deflated independently: each chunk is
+ * primed with the last 32 KiB of the previous one as dictionary, and all but the last end on a
+ * byte-aligned sync flush, so that their concatenation is a single zlib stream (its Adler-32 being
+ * combined from the ones of the chunks), written as a sequence of IDAT chunks.
+ * <p>
+ * The rows are fed in order, possibly a few at a time: at most a few chunks per thread are kept in
+ * memory, and the compressed ones are written as soon as all the previous ones are.
+ */
+public final class PngEncoder {
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+    private static final int WINDOW_SIZE = 32 * 1024;
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final int ADLER_BASE = 65521;
+
+    /**
+     * Scanline filters (PNG specification, section 9)
+     */
+    public enum Filter {
+        NONE, SUB, UP, AVERAGE, PAETH,
+        /**
+         * Filter of each row minimizing the sum of the absolute values of the filtered bytes
+         */
+        ADAPTIVE
+    }
+
+    private final DataOutputStream out;
+    private final int width;
+    private final int height;
+    private final int bytesPerPixel;
+    private final int level;
+    private final Filter filter;
+    private final Executor executor;
+
+    private final int rowsPerChunk;
+    private final int maximumPendingChunks;
+    private final Deque<CompletableFuture<CompressedChunk>> pending = new ArrayDeque<>();
+
+    // rows of the chunk being filled, after the last row of the previous one
+    private int[] rows;
+    private int rowCount;
+    private int rowsWritten;
+    private CompletableFuture<FilteredChunk> previous = CompletableFuture.completedFuture(null);
+    private long adler = 1;
+
+    /**
+     * Constructor: writes the header of the image
+     *
+     * @param out      the output, left open by finish()
+     * @param width    width of the image
+     * @param height   height of the image
+     * @param alpha    whether the alpha channel of the pixels is kept
+     * @param level    deflate compression level (0 to 9)
+     * @param filter   scanline filter
+     * @param executor the pool filtering and compressing the chunks
+     * @param threads  number of threads of the pool
+     */
+    public PngEncoder(OutputStream out, int width, int height, boolean alpha, int level, Filter filter,
+                      Executor executor, int threads) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        this.height = height;
+        this.bytesPerPixel = alpha ? 4 : 3;
+        this.level = level;
+        this.filter = filter;
+        this.executor = executor;
+
+        rowsPerChunk = Math.max(1, CHUNK_SIZE / (width * bytesPerPixel + 1));
+        maximumPendingChunks = 2 * threads;
+        rows = new int[(rowsPerChunk + 1) * width];
+
+        this.out.write(SIGNATURE);
+        // 8 bits per channel, truecolor with or without alpha, no interlace
+        writeChunk("IHDR", ByteBuffer.allocate(13)
+                .putInt(width)
+                .putInt(height)
+                .put((byte) 8)
+                .put((byte) (alpha ? 6 : 2))
+                .put((byte) 0)
+                .put((byte) 0)
+                .put((byte) 0)
+                .array());
+
+        // zlib header: deflate with a 32 KiB window
+        int levelFlag = level < 2 ? 0 : level < 6 ? 1 : level == 6 ? 2 : 3;
+        int header0 = 0x78;
+        int header1 = levelFlag << 6;
+        header1 += 31 - (header0 * 256 + header1) % 31;
+        writeChunk("IDAT", new byte[]{(byte) header0, (byte) header1});
+    }
+
+    /**
+     * Write a whole image as a png file, compressing it on the common pool
+     *
+     * @param pixels ARGB pixels of the image
+     */
+    public static void write(int[] pixels, int width, int height, boolean alpha, int level, Filter filter,
+                             File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            PngEncoder encoder = new PngEncoder(out, width, height, alpha, level, filter,
+                    ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+            encoder.writeRows(pixels, 0, height);
+            encoder.finish();
+        }
+    }
+
+    /**
+     * Add the next rows of the image
+     *
+     * @param pixels ARGB pixels, copied before the method returns
+     * @param offset index of the first pixel of the first row
+     * @param count  number of rows
+     */
+    public void writeRows(int[] pixels, int offset, int count) throws IOException {
+        if (rowsWritten + count > height) {
+            throw new IllegalStateException("Too many rows: " + (rowsWritten + count) + " > " + height);
+        }
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(pixels, offset + i * width, rows, (rowCount + 1) * width, width);
+            rowCount++;
+            rowsWritten++;
+            if (rowCount == rowsPerChunk || rowsWritten == height) {
+                submitChunk(rowsWritten == height);
+            }
+        }
+    }
+
+    /**
+     * Write the end of the image, once all its rows are added
+     */
+    public void finish() throws IOException {
+        if (rowsWritten != height) {
+            throw new IllegalStateException("Missing rows: " + rowsWritten + " < " + height);
+        }
+        while (!pending.isEmpty()) {
+            writeCompressed(pending.removeFirst());
+        }
+
+        writeChunk("IDAT", ByteBuffer.allocate(4).putInt((int) adler).array());
+        writeChunk("IEND", new byte[0]);
+        out.flush();
+    }
+
+    // ----------------------------------------------------------------
+    //                      Chunks of rows
+    // ----------------------------------------------------------------
+
+    private record FilteredChunk(byte[] data, long adler) {
+    }
+
+    private record CompressedChunk(byte[] data, int length, long adler, long uncompressedLength) {
+    }
+
+    private void submitChunk(boolean last) throws IOException {
+        int[] chunkRows = rows;
+        int chunkRowCount = rowCount;
+        boolean first = rowsWritten == chunkRowCount;
+
+        // the next chunk filters its first row against the last one of this chunk
+        rows = new int[(rowsPerChunk + 1) * width];
+        System.arraycopy(chunkRows, chunkRowCount * width, rows, 0, width);
+        rowCount = 0;
+
+        CompletableFuture<FilteredChunk> filtered = CompletableFuture.supplyAsync(
+                () -> filter(chunkRows, chunkRowCount, first), executor);
+        pending.addLast(filtered.thenCombineAsync(previous,
+                (chunk, dictionary) -> compress(chunk, dictionary, last), executor));
+        previous = filtered;
+
+        while (pending.size() > maximumPendingChunks || !pending.isEmpty() && pending.peekFirst().isDone()) {
+            writeCompressed(pending.removeFirst());
+        }
+    }
+
+    private void writeCompressed(CompletableFuture<CompressedChunk> future) throws IOException {
+        CompressedChunk chunk;
+        try {
+            chunk = future.join();
+        } catch (CompletionException e) {
+            throw new IOException(e.getCause());
+        }
+        adler = combineAdler(adler, chunk.adler(), chunk.uncompressedLength());
+        writeChunk("IDAT", chunk.data(), chunk.length());
+    }
+
+    private FilteredChunk filter(int[] chunkRows, int chunkRowCount, boolean first) {
+        int stride = width * bytesPerPixel;
+        byte[] data = new byte[chunkRowCount * (stride + 1)];
+        byte[] above = new byte[stride];
+        byte[] current = new byte[stride];
+        byte[] candidate = filter == Filter.ADAPTIVE ? new byte[stride] : null;
+        if (!first) {
+            toBytes(chunkRows, 0, above);
+        }
+
+        for (int row = 0; row < chunkRowCount; row++) {
+            toBytes(chunkRows, (row + 1) * width, current);
+            int start = row * (stride + 1);
+            if (filter == Filter.ADAPTIVE) {
+                long best = Long.MAX_VALUE;
+                for (Filter type : new Filter[]{Filter.NONE, Filter.SUB, Filter.UP, Filter.AVERAGE, Filter.PAETH}) {
+                    long score = filterRow(type, current, above, candidate, 0);
+                    if (score < best) {
+                        best = score;
+                        data[start] = (byte) type.ordinal();
+                        System.arraycopy(candidate, 0, data, start + 1, stride);
+                    }
+                }
+            } else {
+                data[start] = (byte) filter.ordinal();
+                filterRow(filter, current, above, data, start + 1);
+            }
+
+            byte[] swap = above;
+            above = current;
+            current = swap;
+        }
+
+        Adler32 checksum = new Adler32();
+        checksum.update(data);
+        return new FilteredChunk(data, checksum.getValue());
+    }
+
+    // filter a row into out, returning the sum of the absolute values of the filtered bytes
+    private long filterRow(Filter type, byte[] row, byte[] above, byte[] out, int offset) {
+        int n = row.length;
+        int bpp = bytesPerPixel;
+        switch (type) {
+            case NONE, ADAPTIVE -> System.arraycopy(row, 0, out, offset, n);
+            case SUB -> {
+                System.arraycopy(row, 0, out, offset, bpp);
+                for (int i = bpp; i < n; i++) {
+                    out[offset + i] = (byte) (row[i] - row[i - bpp]);
+                }
+            }
+            case UP -> {
+                for (int i = 0; i < n; i++) {
+                    out[offset + i] = (byte) (row[i] - above[i]);
+                }
+            }
+            case AVERAGE -> {
+                for (int i = 0; i < bpp; i++) {
+                    out[offset + i] = (byte) (row[i] - ((above[i] & 0xFF) >>> 1));
+                }
+                for (int i = bpp; i < n; i++) {
+                    out[offset + i] = (byte) (row[i] - (((row[i - bpp] & 0xFF) + (above[i] & 0xFF)) >>> 1));
+                }
+            }
+            case PAETH -> {
+                for (int i = 0; i < bpp; i++) {
+                    out[offset + i] = (byte) (row[i] - above[i]);
+                }
+                for (int i = bpp; i < n; i++) {
+                    out[offset + i] = (byte) (row[i] - paeth(row[i - bpp] & 0xFF, above[i] & 0xFF,
+                            above[i - bpp] & 0xFF));
+                }
+            }
+        }
+
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += Math.abs(out[offset + i]);
+        }
+        return sum;
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) return a;
+        if (pb <= pc) return b;
+        return c;
+    }
+
+    private void toBytes(int[] pixels, int offset, byte[] bytes) {
+        for (int x = 0, i = 0; x < width; x++) {
+            int argb = pixels[offset + x];
+            bytes[i++] = (byte) (argb >> 16);
+            bytes[i++] = (byte) (argb >> 8);
+            bytes[i++] = (byte) argb;
+            if (bytesPerPixel == 4) {
+                bytes[i++] = (byte) (argb >>> 24);
+            }
+        }
+    }
+
+    private CompressedChunk compress(FilteredChunk chunk, FilteredChunk dictionary, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                int length = Math.min(WINDOW_SIZE, dictionary.data().length);
+                deflater.setDictionary(dictionary.data(), dictionary.data().length - length, length);
+            }
+            deflater.setInput(chunk.data());
+
+            byte[] buffer = new byte[chunk.data().length / 2 + 1024];
+            int length = 0;
+            while (true) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                }
+                if (last) {
+                    deflater.finish();
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                    if (deflater.finished()) break;
+                } else {
+                    // a sync flush is complete once it leaves room in the buffer
+                    length += deflater.deflate(buffer, length, buffer.length - length, Deflater.SYNC_FLUSH);
+                    if (length < buffer.length) break;
+                }
+            }
+            return new CompressedChunk(buffer, length, chunk.adler(), chunk.data().length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Adler-32 of the concatenation of two sequences (adler32_combine from zlib)
+     */
+    static long combineAdler(long adler1, long adler2, long length2) {
+        long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += ((adler1 >> 16) & 0xFFFF) + ((adler2 >> 16) & 0xFFFF) + ADLER_BASE - remainder;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum2 >= 2L * ADLER_BASE) sum2 -= 2L * ADLER_BASE;
+        if (sum2 >= ADLER_BASE) sum2 -= ADLER_BASE;
+        return sum1 | sum2 << 16;
+    }
+
+    // ----------------------------------------------------------------
+    //                      PNG chunks
+    // ----------------------------------------------------------------
+
+    private void writeChunk(String type, byte[] data) throws IOException {
+        writeChunk(type, data, data.length);
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+}
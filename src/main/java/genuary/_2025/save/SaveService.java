@@ -0,0 +1,144 @@
+package genuary._2025.save;
+
+import genuary._2025.statistics.Stage;
+import genuary._2025.statistics.Statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Write-behind saving: the pixels are copied on the calling thread, then encoded and written to
+ * disk by a pool of writer threads, so that rendering goes on while the previous frames are saved.
+ * The png files are deflated on the common pool by {@link PngEncoder}.
+ * <p>
+ * At most capacity saves are pending (queued or being written). Beyond that, the calling thread
+ * waits for a writer to be done: a renderer faster than the disk cannot pile up copies of its
+ * pixels.
+ * <p>
+ * A failed save is printed by its writer as soon as it happens, then rethrown on the calling
+ * thread by the next save or flush.
+ */
+public final class SaveService {
+    private final ExecutorService writers;
+    private final Semaphore pending;
+    private final int capacity;
+    private final int compressionLevel;
+    private final PngEncoder.Filter filter;
+
+    // first failure of a writer, rethrown by the next save or flush()
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    /**
+     * Constructor:
+     *
+     * @param writers          number of writer threads
+     * @param capacity         maximum number of pending saves
+     * @param compressionLevel deflate level of the png files
+     * @param filter           scanline filter of the png files
+     */
+    public SaveService(int writers, int capacity, int compressionLevel, PngEncoder.Filter filter) {
+        AtomicInteger count = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writers, runnable -> {
+            Thread thread = new Thread(runnable, "save-writer-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new Semaphore(capacity);
+        this.capacity = capacity;
+        this.compressionLevel = compressionLevel;
+        this.filter = filter;
+    }
+
+    /**
+     * Save an image as a png file, returning as soon as its pixels are copied
+     *
+     * @param pixels   ARGB pixels of the image (the alpha channel is dropped)
+     * @param width    width of the image
+     * @param height   height of the image
+     * @param fileName absolute path of the png file
+     */
+    public void saveImage(int[] pixels, int width, int height, String fileName) {
+        saveImage(pixels, width, height, fileName, new Statistics(), null);
+    }
+
+    /**
+     * Save an image as a png file, returning as soon as its pixels are copied, then run another
+     * save once the png file is written
+     *
+     * @param statistics statistics the SAVE stage is added to, before the next save runs
+     * @param then       save run after the png file is written, or null
+     * @throws RuntimeException if a previous save failed
+     */
+    public void saveImage(int[] pixels, int width, int height, String fileName, Statistics statistics, Save then) {
+        rethrowFailure();
+        pending.acquireUninterruptibly();
+
+        int[] copy = Arrays.copyOf(pixels, width * height);
+
+        execute(() -> {
+            Statistics.Measure measure = statistics.start(Stage.SAVE, -1);
+            PngEncoder.write(copy, width, height, false, compressionLevel, filter, new File(fileName));
+            measure.stop((long) width * height);
+            System.out.printf("Sketch saved: %s.%n", fileName);
+
+            if (then != null) {
+                then.run();
+            }
+        });
+    }
+
+    /**
+     * Run a save on a writer thread, waiting if too many saves are already pending
+     *
+     * @throws RuntimeException if a previous save failed
+     */
+    public void submit(Save save) {
+        rethrowFailure();
+        pending.acquireUninterruptibly();
+        execute(save);
+    }
+
+    /**
+     * Wait until every pending save is written
+     *
+     * @throws RuntimeException if a save failed and was not rethrown yet
+     */
+    public void flush() {
+        pending.acquireUninterruptibly(capacity);
+        pending.release(capacity);
+
+        rethrowFailure();
+    }
+
+    private void rethrowFailure() {
+        Exception exception = failure.getAndSet(null);
+        if (exception != null) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    // the caller holds a permit, released once the save is done
+    private void execute(Save save) {
+        writers.execute(() -> {
+            try {
+                save.run();
+            } catch (IOException | RuntimeException e) {
+                System.err.printf("Save failed: %s%n", e);
+                failure.compareAndSet(null, e);
+            } finally {
+                pending.release();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    public interface Save {
+        void run() throws IOException;
+    }
+}
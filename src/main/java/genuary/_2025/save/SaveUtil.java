@@ -1,56 +1,207 @@
 package genuary._2025.save;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import genuary._2025.parameters.Parameters;
+import genuary._2025.statistics.Statistics;
+import processing.awt.PGraphicsJava2D;
 import processing.core.PApplet;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class SaveUtil {
     private static final String SAVE_DIRECTORY = "renders/";
+    private static final String BATCH_DIRECTORY = SAVE_DIRECTORY + "batch/";
+    private static final String TILED_DIRECTORY = SAVE_DIRECTORY + "tiled/";
+    private static final String SWEEP_DIRECTORY = SAVE_DIRECTORY + "sweep/";
+    private static final String VECTOR_DIRECTORY = SAVE_DIRECTORY + "vector/";
+
+    private static final int SAVE_WRITERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int SAVE_QUEUE_CAPACITY = 2 * SAVE_WRITERS;
+    public static final int PNG_COMPRESSION_LEVEL = 6;
+    public static final PngEncoder.Filter PNG_FILTER = PngEncoder.Filter.NONE;
+
+    // thread safe once configured, shared by all the saves
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final SaveService SAVE_SERVICE = new SaveService(SAVE_WRITERS, SAVE_QUEUE_CAPACITY,
+            PNG_COMPRESSION_LEVEL, PNG_FILTER);
+
+    static {
+        // the writers are daemon threads: let them finish before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(SAVE_SERVICE::flush, "save-flush"));
+    }
+
+    /**
+     * @return the object mapper shared by all the saves, thread safe
+     */
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
 
     /**
      * Export the sketch parameters to a json file
      */
-    public static void saveParameters(String fileName) {
-        ObjectMapper objectMapper = new ObjectMapper();
+    public static void saveParameters(String fileName, Parameters parameters) {
+        try {
+            OBJECT_MAPPER.writeValue(new File(fileName), parameters.toJsonMap());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Export the sketch parameters to a json file, with the statistics of the render they were used for
+     */
+    public static void saveParameters(String fileName, Parameters parameters, Statistics statistics) {
+        Map<String, Object> json = new LinkedHashMap<>(parameters.toJsonMap());
+        json.put(Statistics.class.getSimpleName(), statistics.toJsonMap());
+        try {
+            OBJECT_MAPPER.writeValue(new File(fileName), json);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
+    /**
+     * Import the sketch parameters from a json file saved with a render.
+     * The parameters missing from the file (saved by an older version) keep their default value.
+     */
+    public static Parameters loadParameters(String fileName) {
         try {
-            objectMapper.writeValue(new File(fileName), Parameters.toJsonMap());
-        } catch (IOException | IllegalAccessException e) {
+            JsonNode saved = OBJECT_MAPPER.readTree(new File(fileName)).get(Parameters.class.getSimpleName());
+            if (saved == null || !saved.isObject()) {
+                throw new IOException("No " + Parameters.class.getSimpleName() + " in " + fileName);
+            }
+
+            ObjectNode parameters = OBJECT_MAPPER.valueToTree(Parameters.DEFAULT);
+            parameters.setAll((ObjectNode) saved);
+            return OBJECT_MAPPER.treeToValue(parameters, Parameters.class);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Saves sketch as a png file and its parameters as a json file
+     * Saves sketch as a png file and its parameters as a json file, with the statistics of the render
+     * (the saving included).
+     * Returns once the pixels are copied, the files being written in the background.
      */
-    public static void saveSketch(PApplet pApplet) {
+    public static void saveSketch(PApplet pApplet, Parameters parameters, Statistics statistics) {
 
-        // Get the caller class name
-        String callerName = StackWalker
-                .getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE)
-                .getCallerClass()
-                .getSimpleName();
+        // Get the sketch class name
+        String sketchName = pApplet.getClass().getSimpleName();
 
         // Get the date and time
         String now = ZonedDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH-mm-ss"));
 
-        // Build the save file names
-        String saveFileName = String.format("%s - %s", callerName, now);
-        String saveRenderName = SAVE_DIRECTORY + saveFileName + ".png";
-        String saveParametersName = SAVE_DIRECTORY + saveFileName + ".json";
+        // Build the save file names (savePath() creates the directory)
+        String saveFileName = String.format("%s - %s", sketchName, now);
+        String saveRenderName = pApplet.savePath(SAVE_DIRECTORY + saveFileName + ".png");
+        String saveParametersName = pApplet.savePath(SAVE_DIRECTORY + saveFileName + ".json");
 
         // Save to disk
         System.out.println("Generation done.");
 
-        pApplet.save(saveRenderName);
-        System.out.printf("Sketch saved: %s.%n", saveRenderName);
+        pApplet.loadPixels();
+        SAVE_SERVICE.saveImage(pApplet.pixels, pApplet.pixelWidth, pApplet.pixelHeight, saveRenderName,
+                statistics, () -> {
+                    saveParameters(saveParametersName, parameters, statistics);
+                    System.out.printf("Parameters saved: %s.%n", saveParametersName);
+                });
+    }
+
+    /**
+     * Saves the parameters of a batch of offscreen renders as a json file
+     */
+    public static void saveBatchParameters(String sketchName, Parameters parameters, long firstSeed, long lastSeed) {
+        String saveParametersName = BATCH_DIRECTORY + String.format("%s - seeds %d-%d.json", sketchName, firstSeed, lastSeed);
 
-        saveParameters(saveParametersName);
+        createDirectories(BATCH_DIRECTORY);
+        saveParameters(saveParametersName, parameters);
         System.out.printf("Parameters saved: %s.%n", saveParametersName);
     }
+
+    /**
+     * Saves an offscreen render as a png file named after its seed, and its parameters as a json file
+     * with the statistics of the render.
+     * Returns once the pixels are copied, the files being written in the background.
+     */
+    public static void saveRender(PGraphicsJava2D graphics, String sketchName, Parameters parameters,
+                                  Statistics statistics) {
+        String saveFileName = BATCH_DIRECTORY + String.format("%s - %d", sketchName, parameters.seed());
+        String saveRenderName = new File(saveFileName + ".png").getAbsolutePath();
+        String saveParametersName = saveFileName + ".json";
+
+        // written directly: saving through Processing requires a parent PApplet
+        createDirectories(BATCH_DIRECTORY);
+        BufferedImage image = (BufferedImage) graphics.image;
+        SAVE_SERVICE.saveImage(((DataBufferInt) image.getRaster().getDataBuffer()).getData(),
+                image.getWidth(), image.getHeight(), saveRenderName, statistics,
+                () -> saveParameters(saveParametersName, parameters, statistics));
+    }
+
+    /**
+     * Saves an image (backed by int pixels) as a png file.
+     * Returns once the pixels are copied, the file being written in the background.
+     */
+    public static void saveImage(BufferedImage image, String fileName) {
+        SAVE_SERVICE.saveImage(((DataBufferInt) image.getRaster().getDataBuffer()).getData(),
+                image.getWidth(), image.getHeight(), fileName);
+    }
+
+    /**
+     * Creates the directory of a parameter sweep, named after the sketch and the date
+     *
+     * @return the path of the directory, ending with a separator
+     */
+    public static String sweepDirectory(String sketchName) {
+        String now = ZonedDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH-mm-ss"));
+        String directory = SWEEP_DIRECTORY + String.format("%s - %s/", sketchName, now);
+
+        createDirectories(directory);
+        return directory;
+    }
+
+    /**
+     * @return the png file of a render streamed tile by tile, named after its seed and size
+     */
+    public static File tiledRenderFile(String sketchName, long seed, int width, int height) {
+        createDirectories(TILED_DIRECTORY);
+        return new File(TILED_DIRECTORY + String.format("%s - %d - %dx%d.png", sketchName, seed, width, height))
+                .getAbsoluteFile();
+    }
+
+    /**
+     * @return the svg file of a render, named after its seed
+     */
+    public static File vectorFile(String sketchName, long seed) {
+        createDirectories(VECTOR_DIRECTORY);
+        return new File(VECTOR_DIRECTORY + String.format("%s - %d.svg", sketchName, seed)).getAbsoluteFile();
+    }
+
+    /**
+     * Wait until every pending save is written
+     */
+    public static void awaitSaves() {
+        SAVE_SERVICE.flush();
+    }
+
+    private static void createDirectories(String directory) {
+        try {
+            Files.createDirectories(Path.of(directory));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -0,0 +1,226 @@
+package genuary._2025.save;
+
+import genuary._2025.parameters.Parameters.Color;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming svg writer: the elements go straight to a channel through a fixed size buffer, without
+ * building a document, so that writing a scene takes a time and a memory linear in its vertices
+ * (the buffer aside, nothing is allocated per vertex).
+ * <p>
+ * Numbers are written with a fixed number of decimals (trailing zeros dropped) by integer
+ * arithmetic instead of String.format. Paths are meant to be defined once and drawn by reference:
+ * {@link #beginPath(String)} ... {@link #endPath()}, then {@link #fill(String, Color)} and
+ * {@link #stroke(String, Color, float)} as many times as needed.
+ */
+public final class SvgWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // longest number: sign, 19 digits, point and decimals
+    private static final int MAXIMUM_NUMBER_LENGTH = 32;
+
+    // 1/100 of a pixel of the canvas, a tenth of a dot at 4 times the canvas size
+    private static final int COORDINATE_DECIMALS = 2;
+    private static final int OPACITY_DECIMALS = 4;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private static final byte[] HEXADECIMAL_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+
+    /**
+     * Write the header of a document of the size of the canvas
+     *
+     * @param channel the channel the document is written to, closed with the writer
+     */
+    public SvgWriter(WritableByteChannel channel, int width, int height) throws IOException {
+        this.channel = channel;
+        write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        write("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" width=\"");
+        writeNumber(width, 0);
+        write("\" height=\"");
+        writeNumber(height, 0);
+        write("\" viewBox=\"0 0 ");
+        writeNumber(width, 0);
+        write(" ");
+        writeNumber(height, 0);
+        write("\">\n");
+    }
+
+    /**
+     * Fill a rectangle
+     */
+    public void rect(float x, float y, float width, float height, Color color) throws IOException {
+        write("<rect x=\"");
+        writeNumber(x, COORDINATE_DECIMALS);
+        write("\" y=\"");
+        writeNumber(y, COORDINATE_DECIMALS);
+        write("\" width=\"");
+        writeNumber(width, COORDINATE_DECIMALS);
+        write("\" height=\"");
+        writeNumber(height, COORDINATE_DECIMALS);
+        write("\"");
+        writePaint("fill", color);
+        write("/>\n");
+    }
+
+    /**
+     * Start the definition of an even-odd path, drawn later by its id
+     */
+    public void beginPath(String id) throws IOException {
+        write("<defs><path id=\"");
+        write(id);
+        write("\" fill-rule=\"evenodd\" d=\"");
+    }
+
+    public void moveTo(float x, float y) throws IOException {
+        write("M");
+        writePoint(x, y);
+    }
+
+    public void lineTo(float x, float y) throws IOException {
+        write("L");
+        writePoint(x, y);
+    }
+
+    public void closePath() throws IOException {
+        write("Z");
+    }
+
+    public void endPath() throws IOException {
+        write("\"/></defs>\n");
+    }
+
+    /**
+     * Fill a path defined before
+     */
+    public void fill(String id, Color color) throws IOException {
+        writeUse(id);
+        writePaint("fill", color);
+        write("/>\n");
+    }
+
+    /**
+     * Stroke a path defined before, with round caps and miter joins as Processing
+     */
+    public void stroke(String id, Color color, float weight) throws IOException {
+        writeUse(id);
+        write(" fill=\"none\"");
+        writePaint("stroke", color);
+        write(" stroke-width=\"");
+        writeNumber(weight, COORDINATE_DECIMALS);
+        write("\" stroke-linecap=\"round\" stroke-linejoin=\"miter\"/>\n");
+    }
+
+    /**
+     * Write the end of the document, then flush and close the channel
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            write("</svg>\n");
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeUse(String id) throws IOException {
+        write("<use xlink:href=\"#");
+        write(id);
+        write("\"");
+    }
+
+    // color attribute (#rrggbb) and its opacity when not opaque
+    private void writePaint(String attribute, Color color) throws IOException {
+        write(" ");
+        write(attribute);
+        write("=\"#");
+        ensureRemaining(6);
+        writeHexadecimal(color.red());
+        writeHexadecimal(color.green());
+        writeHexadecimal(color.blue());
+        write("\"");
+        if (color.alpha() < 255) {
+            write(" ");
+            write(attribute);
+            write("-opacity=\"");
+            writeNumber(color.alpha() / 255, OPACITY_DECIMALS);
+            write("\"");
+        }
+    }
+
+    private void writeHexadecimal(float component) {
+        int value = Math.min(Math.max(Math.round(component), 0), 255);
+        buffer.put(HEXADECIMAL_DIGITS[value >> 4]);
+        buffer.put(HEXADECIMAL_DIGITS[value & 15]);
+    }
+
+    private void writePoint(float x, float y) throws IOException {
+        writeNumber(x, COORDINATE_DECIMALS);
+        write(" ");
+        writeNumber(y, COORDINATE_DECIMALS);
+    }
+
+    // value rounded to a number of decimals, without trailing zeros
+    private void writeNumber(float value, int decimals) throws IOException {
+        ensureRemaining(MAXIMUM_NUMBER_LENGTH);
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round((double) value * scale);
+        if (scaled < 0) {
+            buffer.put((byte) '-');
+            scaled = -scaled;
+        }
+        writeDigits(scaled / scale);
+
+        long fraction = scaled % scale;
+        if (fraction != 0) {
+            buffer.put((byte) '.');
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                decimals--;
+            }
+            for (int i = decimals - 1; i >= 0; i--) {
+                buffer.put((byte) ('0' + fraction / POWERS_OF_TEN[i] % 10));
+            }
+        }
+    }
+
+    private void writeDigits(long value) {
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, start, digits.length - start);
+    }
+
+    // markup is ascii
+    private void write(String text) throws IOException {
+        ensureRemaining(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    private void ensureRemaining(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package genuary._2025.statistics;
+
+/**
+ * Stages of the pipeline, from the sites of a layer to the png file of the render
+ */
+public enum Stage {
+    /**
+     * Random sites of the cuts (count: sites)
+     */
+    SITES,
+    /**
+     * Delaunay triangulation of the sites (count: sites, with walk steps and edge flips)
+     */
+    DELAUNAY,
+    /**
+     * Voronoi regions clipped around the canvas (count: cells)
+     */
+    VORONOI,
+    /**
+     * Chaikin smoothing and contraction of the regions (count: vertices)
+     */
+    CHAIKIN,
+    /**
+     * Simplification of the smoothed regions (count: vertices left), only measured when
+     * SIMPLIFICATION_TOLERANCE is positive
+     */
+    SIMPLIFY,
+    /**
+     * Depth and projected shadows of a layer (count: vertices drawn)
+     */
+    SHADOW,
+    /**
+     * Fill of a layer (count: vertices drawn)
+     */
+    FILL,
+    /**
+     * Png encoding and writing of a render (count: pixels). Only the allocations of the writer
+     * thread are counted, the deflating running on the common pool.
+     */
+    SAVE
+}
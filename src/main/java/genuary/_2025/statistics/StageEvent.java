@@ -0,0 +1,42 @@
+package genuary._2025.statistics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a stage of the pipeline, its duration being the wall time of the stage.
+ * Recorded with -XX:StartFlightRecording, e.g.
+ * jfr print --events genuary.Stage recording.jfr
+ */
+@Name("genuary.Stage")
+@Label("Stage")
+@Category("Genuary")
+@Description("A stage of the rendering of a layer, or the saving of a render")
+@StackTrace(false)
+final class StageEvent extends Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Layer")
+    @Description("Index of the layer, -1 for the stages of the whole render")
+    int layer;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("Count")
+    @Description("Sites, cells, vertices or pixels, depending on the stage")
+    long count;
+
+    @Label("Walk Steps")
+    long walkSteps;
+
+    @Label("Edge Flips")
+    long flips;
+}
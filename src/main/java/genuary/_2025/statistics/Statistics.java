@@ -0,0 +1,124 @@
+package genuary._2025.statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wall time, allocated bytes and counts of the stages of a render, summed over its layers.
+ * <p>
+ * Each stage is measured on the thread running it: the statistics of a layer are only updated by
+ * one thread at a time, and those of a render are the sum of the ones of its layers. Every measure
+ * is also committed as a {@link StageEvent} when the flight recorder is on.
+ */
+public final class Statistics {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long[] nanoseconds = new long[Stage.values().length];
+    private final long[] allocatedBytes = new long[Stage.values().length];
+    private final long[] counts = new long[Stage.values().length];
+    private long walkSteps;
+    private long flips;
+
+    /**
+     * Statistics of a stage, as saved in the json file of a render
+     */
+    public record StageStatistics(double milliseconds, long allocatedBytes, long count) {
+    }
+
+    /**
+     * Start measuring a stage on the current thread
+     *
+     * @param layer index of the layer, -1 for the stages of the whole render
+     */
+    public Measure start(Stage stage, int layer) {
+        return new Measure(stage, layer);
+    }
+
+    /**
+     * Add the statistics of a layer (or of another render) to these ones
+     */
+    public void add(Statistics other) {
+        for (int i = 0; i < nanoseconds.length; i++) {
+            nanoseconds[i] += other.nanoseconds[i];
+            allocatedBytes[i] += other.allocatedBytes[i];
+            counts[i] += other.counts[i];
+        }
+        walkSteps += other.walkSteps;
+        flips += other.flips;
+    }
+
+    /**
+     * Helper method to save the statistics to a json file
+     *
+     * @return a Map of the statistics of the measured stages (name -> statistics), with the walk
+     * steps and edge flips of the triangulations
+     */
+    public Map<String, Object> toJsonMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            int i = stage.ordinal();
+            if (nanoseconds[i] > 0) {
+                map.put(stage.name(), new StageStatistics(nanoseconds[i] / 1e6, allocatedBytes[i], counts[i]));
+            }
+        }
+        map.put("WALK_STEPS", walkSteps);
+        map.put("EDGE_FLIPS", flips);
+        return map;
+    }
+
+    /**
+     * A stage being measured
+     */
+    public final class Measure {
+        private final Stage stage;
+        private final int layer;
+        private final StageEvent event = new StageEvent();
+        private final long start;
+        private final long startAllocatedBytes;
+
+        private Measure(Stage stage, int layer) {
+            this.stage = stage;
+            this.layer = layer;
+            event.begin();
+            startAllocatedBytes = THREADS.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+        }
+
+        /**
+         * Stop measuring the stage
+         *
+         * @param count sites, cells, vertices or pixels, depending on the stage
+         */
+        public void stop(long count) {
+            stop(count, 0, 0);
+        }
+
+        /**
+         * Stop measuring a triangulation
+         */
+        public void stop(long count, long walkSteps, long flips) {
+            long duration = System.nanoTime() - start;
+            long allocated = THREADS.getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+
+            int i = stage.ordinal();
+            nanoseconds[i] += duration;
+            allocatedBytes[i] += allocated;
+            counts[i] += count;
+            Statistics.this.walkSteps += walkSteps;
+            Statistics.this.flips += flips;
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = stage.name();
+                event.layer = layer;
+                event.allocatedBytes = allocated;
+                event.count = count;
+                event.walkSteps = walkSteps;
+                event.flips = flips;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package genuary._2025.sweep;
+
+import genuary._2025.Scene;
+import genuary._2025.layer.Layer;
+import genuary._2025.layer.Polygon;
+import genuary._2025.parameters.Parameters;
+import processing.core.PVector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Geometry of the scenes of a sweep, computed stage by stage, each stage being memoized by the
+ * parameters it depends on:
+ * <ul>
+ *     <li>the sites, by seed, canvas size, margin and numbers of layers and cuts,</li>
+ *     <li>the Voronoi cells, by sites (their clipping rectangle only depends on the same parameters),</li>
+ *     <li>the smoothed polygons, by cells, Chaikin settings and simplification tolerance.</li>
+ * </ul>
+ * Changing a color or a shadow setting reuses all the geometry, changing the contraction only
+ * smooths the cells again. The last few results of each stage are kept (least recently used first
+ * out), the variants being rendered grouped by geometry.
+ * <p>
+ * Not thread safe: the layers of a stage are computed in parallel, the scenes one after the other.
+ */
+public final class Pipeline {
+    private static final int CAPACITY = 4;
+
+    record SitesKey(long seed, int width, int height, float margin, int numberOfLayers, int numberOfCuts) {
+        static SitesKey of(Parameters parameters) {
+            return new SitesKey(parameters.seed(), parameters.width(), parameters.height(), parameters.margin(),
+                    parameters.numberOfLayers(), parameters.numberOfCuts());
+        }
+    }
+
+    record PolygonsKey(SitesKey sites, int chaikinDepth, float chaikinProportion, float chaikinThreshold,
+                       float chaikinTolerance, float contraction, float simplificationTolerance) {
+        static PolygonsKey of(Parameters parameters) {
+            return new PolygonsKey(SitesKey.of(parameters), parameters.chaikinDepth(),
+                    parameters.chaikinProportion(), parameters.chaikinThreshold(), parameters.chaikinTolerance(),
+                    parameters.contraction(), parameters.simplificationTolerance());
+        }
+    }
+
+    // per layer results of each stage
+    private final Memo<SitesKey, List<List<PVector>>> sites = new Memo<>();
+    private final Memo<SitesKey, List<List<List<PVector>>>> cells = new Memo<>();
+    private final Memo<PolygonsKey, List<List<Polygon>>> polygons = new Memo<>();
+
+    /**
+     * @return the scene of the seed of the parameters, from the memoized stages when possible
+     */
+    public Scene scene(Parameters parameters) {
+        SitesKey sitesKey = SitesKey.of(parameters);
+
+        List<List<PVector>> layerSites = sites.get(sitesKey, () ->
+                Layer.splitRandom(parameters.seed(), parameters.numberOfLayers()).stream()
+                        .map(random -> Layer.generateSites(parameters, random))
+                        .toList());
+        List<List<List<PVector>>> layerCells = cells.get(sitesKey, () ->
+                layerSites.parallelStream()
+                        .map(layer -> Layer.computeCells(parameters, layer))
+                        .toList());
+        List<List<Polygon>> layerPolygons = polygons.get(PolygonsKey.of(parameters), () ->
+                layerCells.parallelStream()
+                        .map(layer -> Layer.simplifyPolygons(parameters, Layer.smoothCells(parameters, layer)))
+                        .toList());
+
+        return new Scene(parameters, IntStream.range(0, layerPolygons.size())
+                .mapToObj(i -> new Layer(parameters, i, layerPolygons.get(i)))
+                .toList());
+    }
+
+    private static final class Memo<K, V> {
+        private final Map<K, V> values = new LinkedHashMap<>(16, .75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > CAPACITY;
+            }
+        };
+
+        private V get(K key, Supplier<V> compute) {
+            V value = values.get(key);
+            if (value != null) {
+                return value;
+            }
+            value = compute.get();
+            values.put(key, value);
+            return value;
+        }
+    }
+}
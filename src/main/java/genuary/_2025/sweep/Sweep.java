@@ -0,0 +1,118 @@
+package genuary._2025.sweep;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import genuary._2025.parameters.Parameters;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Description of a parameter sweep, as loaded from a json file:
+ * <pre>
+ * {"base": "preview.json",
+ *  "grid": {"CONTRACTION": [2, 5, 10], "LAYER_COLOR": [{"red": 235, "green": 235, "blue": 235, "alpha": 255}]},
+ *  "random": {"PROJECTED_SHADOW_STROKE_WEIGHT": [10, 40]},
+ *  "samples": 4, "seed": 1, "thumbnailSize": 256}
+ * </pre>
+ * Every combination of the grid values is a variant of the base parameters (the defaults without
+ * base). With random ranges, each combination is declined samples times, the values being drawn
+ * uniformly in the ranges (rounded for integer parameters).
+ *
+ * @param base          parameters file the variants are derived from (optional)
+ * @param grid          values of the parameters swept exhaustively, by parameter name
+ * @param random        range [min, max] of the parameters sampled at random, by parameter name
+ * @param samples       number of random samples of each grid combination
+ * @param seed          seed of the random samples
+ * @param thumbnailSize size of the thumbnails of the contact sheet
+ */
+public record Sweep(String base, Map<String, List<JsonNode>> grid, Map<String, List<Double>> random,
+                    int samples, long seed, int thumbnailSize) {
+    private static final int DEFAULT_THUMBNAIL_SIZE = 256;
+
+    public Sweep {
+        grid = grid == null ? Map.of() : grid;
+        random = random == null ? Map.of() : random;
+        samples = random.isEmpty() ? 1 : Math.max(1, samples);
+        thumbnailSize = thumbnailSize > 0 ? thumbnailSize : DEFAULT_THUMBNAIL_SIZE;
+    }
+
+    /**
+     * A set of parameters of the sweep
+     *
+     * @param index      number of the variant, in the order of the sweep
+     * @param parameters the parameters of the variant
+     * @param values     the values of the swept parameters, by parameter name
+     */
+    public record Variant(int index, Parameters parameters, Map<String, JsonNode> values) {
+    }
+
+    /**
+     * @return the variants of the sweep: the grid combinations in order (the last parameter of the
+     * grid varying first), each followed by its random samples
+     */
+    public List<Variant> variants(ObjectMapper objectMapper, Parameters baseParameters) {
+        ObjectNode baseTree = objectMapper.valueToTree(baseParameters);
+        for (String name : grid.keySet()) {
+            checkParameter(baseTree, name);
+        }
+        for (Map.Entry<String, List<Double>> range : random.entrySet()) {
+            checkParameter(baseTree, range.getKey());
+            if (range.getValue().size() != 2) {
+                throw new IllegalArgumentException("Random range of " + range.getKey() + " is not [min, max]");
+            }
+        }
+
+        List<Map<String, JsonNode>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<JsonNode>> values : grid.entrySet()) {
+            List<Map<String, JsonNode>> expanded = new ArrayList<>();
+            for (Map<String, JsonNode> combination : combinations) {
+                for (JsonNode value : values.getValue()) {
+                    Map<String, JsonNode> next = new LinkedHashMap<>(combination);
+                    next.put(values.getKey(), value);
+                    expanded.add(next);
+                }
+            }
+            combinations = expanded;
+        }
+
+        SplittableRandom randomValues = new SplittableRandom(seed);
+        List<Variant> variants = new ArrayList<>();
+        for (Map<String, JsonNode> combination : combinations) {
+            for (int sample = 0; sample < samples; sample++) {
+                Map<String, JsonNode> values = new LinkedHashMap<>(combination);
+                for (Map.Entry<String, List<Double>> range : random.entrySet()) {
+                    double min = range.getValue().get(0);
+                    double max = range.getValue().get(1);
+                    double value = min + randomValues.nextDouble() * (max - min);
+                    values.put(range.getKey(), baseTree.get(range.getKey()).isIntegralNumber()
+                            ? LongNode.valueOf(Math.round(value))
+                            : DoubleNode.valueOf(Math.round(value * 1000) / 1000d));
+                }
+
+                ObjectNode tree = baseTree.deepCopy();
+                values.forEach(tree::set);
+                try {
+                    variants.add(new Variant(variants.size(), objectMapper.treeToValue(tree, Parameters.class), values));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Invalid variant " + values, e);
+                }
+            }
+        }
+        return variants;
+    }
+
+    private static void checkParameter(ObjectNode baseTree, String name) {
+        if (!baseTree.has(name)) {
+            throw new IllegalArgumentException("Unknown parameter: " + name);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package genuary._2025.sweep;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import genuary._2025.Genuary02;
+import genuary._2025.Scene;
+import genuary._2025.parameters.Parameters;
+import processing.awt.PGraphicsJava2D;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static genuary._2025.batch.BatchRenderer.createGraphics;
+import static genuary._2025.save.SaveUtil.*;
+
+/**
+ * Renders the variants of a parameter sweep in a single JVM, and saves a contact sheet of their
+ * thumbnails along with the parameters of each variant.
+ * <p>
+ * Usage: SweepRunner sweep.json (see {@link Sweep} for its content)
+ * <p>
+ * The variants are rendered grouped by geometry, so that the {@link Pipeline} only recomputes the
+ * stages invalidated from one variant to the next. On the contact sheet, each thumbnail is labeled
+ * with the number of the variant (the one of its json file) and the values of the swept parameters.
+ */
+public class SweepRunner {
+    private static final String SKETCH_NAME = Genuary02.class.getSimpleName();
+    private static final int PADDING = 8;
+    private static final int LINE_HEIGHT = 14;
+    private static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 11);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: SweepRunner sweep.json");
+            return;
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        ObjectMapper objectMapper = objectMapper();
+        Sweep sweep = objectMapper.readValue(new File(args[0]), Sweep.class);
+        Parameters base = sweep.base() == null ? Parameters.DEFAULT : loadParameters(sweep.base());
+        List<Sweep.Variant> variants = sweep.variants(objectMapper, base);
+
+        String directory = sweepDirectory(SKETCH_NAME);
+        long start = System.nanoTime();
+
+        // render the variants sharing sites, then polygons, one after the other
+        Map<Object, Integer> firstSites = new HashMap<>();
+        Map<Object, Integer> firstPolygons = new HashMap<>();
+        for (Sweep.Variant variant : variants) {
+            firstSites.putIfAbsent(Pipeline.SitesKey.of(variant.parameters()), variant.index());
+            firstPolygons.putIfAbsent(Pipeline.PolygonsKey.of(variant.parameters()), variant.index());
+        }
+        List<Sweep.Variant> renderOrder = new ArrayList<>(variants);
+        renderOrder.sort(Comparator
+                .comparing((Sweep.Variant variant) -> firstSites.get(Pipeline.SitesKey.of(variant.parameters())))
+                .thenComparing(variant -> firstPolygons.get(Pipeline.PolygonsKey.of(variant.parameters()))));
+
+        // label of each variant: its number and the values of the swept parameters
+        List<List<String>> labels = new ArrayList<>();
+        for (Sweep.Variant variant : variants) {
+            List<String> label = new ArrayList<>();
+            label.add(String.format("#%03d", variant.index()));
+            for (Map.Entry<String, JsonNode> value : variant.values().entrySet()) {
+                label.add(value.getKey() + " = " + format(value.getValue()));
+            }
+            labels.add(label);
+        }
+
+        // cells wide enough for the thumbnails and their labels
+        BufferedImage sheet = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        FontMetrics metrics = sheet.createGraphics().getFontMetrics(LABEL_FONT);
+        int labelWidth = labels.stream().flatMap(List::stream).mapToInt(metrics::stringWidth).max().orElse(0);
+        int labelLines = labels.stream().mapToInt(List::size).max().orElse(0);
+
+        int columns = (int) Math.ceil(Math.sqrt(variants.size()));
+        int rows = (variants.size() + columns - 1) / columns;
+        int cellWidth = Math.max(sweep.thumbnailSize(), labelWidth) + PADDING;
+        int cellHeight = sweep.thumbnailSize() + labelLines * LINE_HEIGHT + PADDING;
+        sheet = new BufferedImage(Math.max(1, columns * cellWidth + PADDING),
+                Math.max(1, rows * cellHeight + PADDING), BufferedImage.TYPE_INT_RGB);
+        Graphics2D sheetGraphics = sheet.createGraphics();
+        sheetGraphics.setColor(Color.WHITE);
+        sheetGraphics.fillRect(0, 0, sheet.getWidth(), sheet.getHeight());
+        sheetGraphics.setColor(Color.BLACK);
+        sheetGraphics.setFont(LABEL_FONT);
+        sheetGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        Pipeline pipeline = new Pipeline();
+        PGraphicsJava2D graphics = null;
+        for (Sweep.Variant variant : renderOrder) {
+            long variantStart = System.nanoTime();
+            Parameters parameters = variant.parameters();
+            if (graphics == null || graphics.width != parameters.width() || graphics.height != parameters.height()) {
+                graphics = createGraphics(parameters.width(), parameters.height());
+            }
+
+            Scene scene = pipeline.scene(parameters);
+            graphics.beginDraw();
+            scene.render(graphics);
+            graphics.endDraw();
+
+            // fit the thumbnail in its cell, keeping the aspect ratio of the canvas
+            float scale = (float) sweep.thumbnailSize() / Math.max(parameters.width(), parameters.height());
+            BufferedImage thumbnail = thumbnail((BufferedImage) graphics.image,
+                    Math.max(1, Math.round(parameters.width() * scale)),
+                    Math.max(1, Math.round(parameters.height() * scale)));
+
+            int x = PADDING + variant.index() % columns * cellWidth;
+            int y = PADDING + variant.index() / columns * cellHeight;
+            sheetGraphics.drawImage(thumbnail, x, y, null);
+            List<String> label = labels.get(variant.index());
+            for (int line = 0; line < label.size(); line++) {
+                sheetGraphics.drawString(label.get(line), x, y + sweep.thumbnailSize() + (line + 1) * LINE_HEIGHT - 3);
+            }
+
+            saveParameters(directory + String.format("variant %03d.json", variant.index()), parameters);
+            System.out.printf("Variant %d (%d/%d): %d ms.%n", variant.index(), renderOrder.indexOf(variant) + 1,
+                    variants.size(), (System.nanoTime() - variantStart) / 1_000_000);
+        }
+        sheetGraphics.dispose();
+
+        String sheetName = new File(directory + "contact sheet.png").getAbsolutePath();
+        saveImage(sheet, sheetName);
+        awaitSaves();
+
+        System.out.printf("%d variants in %.1f s.%n", variants.size(), (System.nanoTime() - start) / 1e9);
+    }
+
+    // values of objects (colors) without their field names
+    private static String format(JsonNode value) {
+        if (!value.isContainerNode()) {
+            return value.asText();
+        }
+        List<String> values = new ArrayList<>();
+        value.elements().forEachRemaining(element -> values.add(format(element)));
+        return "(" + String.join(", ", values) + ")";
+    }
+
+    // downscale by halves, so that bilinear filtering does not skip pixels
+    private static BufferedImage thumbnail(BufferedImage image, int width, int height) {
+        BufferedImage thumbnail = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(thumbnail, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            thumbnail = next;
+        } while (currentWidth != width || currentHeight != height);
+        return thumbnail;
+    }
+}
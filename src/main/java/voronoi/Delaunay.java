@@ -2,15 +2,36 @@ package voronoi;
 
 import processing.core.PVector;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 public class Delaunay {
     // starting edge for walk (see locate() method)
     private QuadEdge startingEdge;
 
     // list of quadEdge belonging to Delaunay triangulation
+    // (removed quadEdge leave a null slot until the list is compacted, see removeQuadEdge())
     private final List<QuadEdge> quadEdge = new ArrayList<>();
+    private int removedQuadEdges;
+
+    // state of the xorshift generator sampling the starting edges (see locate() method)
+    private int sampleState = 0x9E3779B9;
+
+    // walk steps of the last locate() and since the creation of the triangulation
+    private int lastWalkSteps;
+    private long totalWalkSteps;
+
+    // edges swapped to restore the Delaunay condition since the creation of the triangulation
+    private long totalFlips;
 
     // Bounding box of the triangulation
     static class BoundingBox {
@@ -26,6 +47,23 @@ public class Delaunay {
 
     private final BoundingBox boundingBox = new BoundingBox();
 
+    // Voronoi region of a site, cached between two computeVoronoi() calls
+    private static class Site {
+        QuadEdge edge;  // an edge starting from the site
+        int index;      // index of the region in the voronoi list (-1 once the site is removed)
+        boolean dirty;  // the region has to be recomputed
+    }
+
+    // sites of the triangulation, their regions in insertion order (see computeVoronoi() method)
+    // and the site of each region
+    private final Map<PVector, Site> sites = new HashMap<>();
+    private final List<List<PVector>> voronoi = new ArrayList<>();
+    private final List<Site> regionSites = new ArrayList<>();
+    private final List<Site> dirtySites = new ArrayList<>();
+
+    // the bounding box moved: every circumcenter has to be recomputed
+    private boolean voronoiInvalidated;
+
     /**
      * Constructor:
      */
@@ -36,7 +74,11 @@ public class Delaunay {
         boundingBox.minY = Integer.MAX_VALUE;
         boundingBox.maxY = Integer.MIN_VALUE;
 
-        // create the QuadEdge graph of the bounding box
+        this.startingEdge = makeFrame();
+    }
+
+    // create the QuadEdge graph of the bounding box, returning its edge from a to b
+    private QuadEdge makeFrame() {
         QuadEdge ab = QuadEdge.makeEdge(boundingBox.a, boundingBox.b);
         QuadEdge bc = QuadEdge.makeEdge(boundingBox.b, boundingBox.c);
         QuadEdge cd = QuadEdge.makeEdge(boundingBox.c, boundingBox.d);
@@ -45,12 +87,14 @@ public class Delaunay {
         QuadEdge.splice(bc.symmetric(), cd);
         QuadEdge.splice(cd.symmetric(), da);
         QuadEdge.splice(da.symmetric(), ab);
-
-        this.startingEdge = ab;
+        return ab;
     }
 
     /**
-     * update the dimension of the bounding box
+     * update the dimension of the bounding box, which has to contain the points already inserted
+     * <p>
+     * The corners of the bounding box are vertices of the triangulation: once they are moved, the
+     * edges around them are flipped until the triangulation is a Delaunay one again.
      *
      * @param minX, minY, maxX, maxY summits of the rectangle
      */
@@ -78,6 +122,95 @@ public class Delaunay {
         boundingBox.c.y = yMax;
         boundingBox.d.x = xMin;
         boundingBox.d.y = yMax;
+
+        voronoiInvalidated = true;
+        if (!sites.isEmpty()) {
+            restoreCorners();
+        }
+    }
+
+    /**
+     * Restores the Delaunay condition after the corners of the bounding box moved: only the edges
+     * whose quadrilateral has a corner as a vertex may have changed, they are flipped (Lawson)
+     * along with the edges around them until every edge is locally Delaunay again.
+     * <p>
+     * A corner moving across the opposite side of one of its triangles would turn it over, which
+     * flips cannot repair: the triangulation is then built again from its sites.
+     */
+    private void restoreCorners() {
+        ArrayDeque<QuadEdge> suspects = new ArrayDeque<>();
+        for (QuadEdge q : this.quadEdge) {
+            if (q == null) continue;
+            if (isCorner(q.orig()) && !pushCornerEdge(q, suspects)) {
+                rebuild();
+                return;
+            }
+            if (isCorner(q.destination()) && !pushCornerEdge(q.symmetric(), suspects)) {
+                rebuild();
+                return;
+            }
+        }
+
+        while (!suspects.isEmpty()) {
+            QuadEdge e = suspects.pop();
+            if (!isTriangle(e) || !isTriangle(e.symmetric())) continue; // side of the bounding box
+
+            PVector right = e.symmetric().leftNext().destination();
+            if (!QuadEdge.inCircle(e.orig(), e.destination(), e.leftNext().destination(), right)) continue;
+
+            QuadEdge.swapEdge(e);
+            totalFlips++;
+            suspects.push(e.leftNext());
+            suspects.push(e.leftPrevious());
+            suspects.push(e.symmetric().leftNext());
+            suspects.push(e.symmetric().leftPrevious());
+
+            // the four vertices of the quadrilateral keep an edge starting from them
+            markDirty(e);
+            markDirty(e.symmetric());
+            markDirty(e.leftPrevious());
+            markDirty(e.symmetric().leftPrevious());
+        }
+    }
+
+    // queue an edge starting from a corner and the side opposite to the corner in its left face,
+    // false if this face is turned over
+    private static boolean pushCornerEdge(QuadEdge q, ArrayDeque<QuadEdge> suspects) {
+        suspects.push(q);
+        if (!isTriangle(q)) return true; // outside of the bounding box
+
+        suspects.push(q.leftNext());
+        return QuadEdge.isCounterClockwise(q.orig(), q.destination(), q.leftNext().destination());
+    }
+
+    private static boolean isTriangle(QuadEdge q) {
+        return q.leftNext().leftNext().leftNext() == q;
+    }
+
+    private boolean isCorner(PVector p) {
+        return p == boundingBox.a || p == boundingBox.b || p == boundingBox.c || p == boundingBox.d;
+    }
+
+    // triangulate the sites again in a new frame (in BRIO order), keeping their regions
+    private void rebuild() {
+        this.quadEdge.clear();
+        removedQuadEdges = 0;
+        this.startingEdge = makeFrame();
+
+        PVector[] points = sites.keySet().toArray(new PVector[0]);
+        float[] coordinates = new float[2 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            coordinates[2 * i] = points[i].x;
+            coordinates[2 * i + 1] = points[i].y;
+        }
+        for (int i : InsertionOrder.brio(coordinates)) {
+            connectPoint(points[i]);
+        }
+        for (QuadEdge q : this.quadEdge) {
+            if (q == null) continue;
+            markDirty(q);
+            markDirty(q.symmetric());
+        }
     }
 
     // update the size of the bounding box (cf locate() method)
@@ -89,6 +222,71 @@ public class Delaunay {
         setBoundingBox(minX, minY, maxX, maxY);
     }
 
+    /**
+     * @return the number of walk steps taken by the last insertion
+     */
+    public int getLastWalkSteps() {
+        return lastWalkSteps;
+    }
+
+    /**
+     * @return the number of walk steps taken by all the insertions
+     */
+    public long getTotalWalkSteps() {
+        return totalWalkSteps;
+    }
+
+    /**
+     * @return the number of edges flipped by all the insertions
+     */
+    public long getTotalFlips() {
+        return totalFlips;
+    }
+
+    /**
+     * Jump step of the jump-and-walk point location (Mücke, Saias and Zhu):
+     * samples about n^(1/3) edges and keeps the one whose origin is the closest to p
+     *
+     * @param p the point to locate
+     * @return the edge to start the walk from
+     */
+    private QuadEdge selectStartingEdge(PVector p) {
+        QuadEdge best = startingEdge;
+        float bestDistance = squaredDistance(best.orig(), p);
+
+        int size = this.quadEdge.size();
+        int samples = (int) Math.cbrt(size);
+        for (int i = 0; i < samples; i++) {
+            QuadEdge q = this.quadEdge.get(nextSample(size));
+            if (q == null) continue;
+            float distance = squaredDistance(q.orig(), p);
+            if (distance < bestDistance) {
+                best = q;
+                bestDistance = distance;
+            }
+            distance = squaredDistance(q.destination(), p);
+            if (distance < bestDistance) {
+                best = q.symmetric();
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    // uniform index in [0, bound) from a xorshift generator (deterministic for a given insertion order)
+    private int nextSample(int bound) {
+        sampleState ^= sampleState << 13;
+        sampleState ^= sampleState >>> 17;
+        sampleState ^= sampleState << 5;
+        return (int) ((sampleState & 0xFFFFFFFFL) * bound >>> 32);
+    }
+
+    private static float squaredDistance(PVector a, PVector b) {
+        float dx = a.x - b.x;
+        float dy = a.y - b.y;
+        return dx * dx + dy * dy;
+    }
+
     /**
      * Returns an edge e of the triangle containing the point p
      * (Guibas and Stolfi)
@@ -103,8 +301,12 @@ public class Delaunay {
             updateBoundingBox(p);
         }
 
-        QuadEdge e = startingEdge;
+        QuadEdge e = selectStartingEdge(p);
+        lastWalkSteps = 0;
         while (true) {
+            lastWalkSteps++;
+            totalWalkSteps++;
+
             /* duplicate point ? */
             if (p.x == e.orig().x && p.y == e.orig().y) return e;
             if (p.x == e.destination().x && p.y == e.destination().y) return e;
@@ -121,6 +323,30 @@ public class Delaunay {
         }
     }
 
+    // append a quadEdge to the list, remembering its slot for removeQuadEdge()
+    private void addQuadEdge(QuadEdge q) {
+        q.setSlot(this.quadEdge.size());
+        this.quadEdge.add(q);
+    }
+
+    // O(1) removal: the slot is cleared, and the list is compacted (keeping the order)
+    // once half of it is made of cleared slots
+    private void removeQuadEdge(QuadEdge q) {
+        if (q.slot() < 0) return;
+
+        this.quadEdge.set(q.slot(), null);
+        q.setSlot(-1);
+        removedQuadEdges++;
+
+        if (2 * removedQuadEdges > this.quadEdge.size()) {
+            this.quadEdge.removeIf(Objects::isNull);
+            for (int i = 0; i < this.quadEdge.size(); i++) {
+                this.quadEdge.get(i).setSlot(i);
+            }
+            removedQuadEdges = 0;
+        }
+    }
+
     /**
      * Inserts a new point into a Delaunay triangulation
      * (Guibas and Stolfi)
@@ -128,30 +354,47 @@ public class Delaunay {
      * @param p the point to insert
      */
     public void insertPoint(PVector p) {
+        if (!connectPoint(p)) return;
+
+        addSite(p);
+        invalidateStar(startingEdge.symmetric());
+    }
+
+    // a new site, with the next region
+    private void addSite(PVector p) {
+        Site site = new Site();
+        site.index = voronoi.size();
+        sites.put(p, site);
+        voronoi.add(null);
+        regionSites.add(site);
+    }
+
+    // insert the point in the graph, leaving startingEdge pointing to it; false for a duplicate point
+    private boolean connectPoint(PVector p) {
         QuadEdge e = locate(p);
 
         // point is a duplicate -> nothing to do
-        if (p.x == e.orig().x && p.y == e.orig().y) return;
-        if (p.x == e.destination().x && p.y == e.destination().y) return;
+        if (p.x == e.orig().x && p.y == e.orig().y) return false;
+        if (p.x == e.destination().x && p.y == e.destination().y) return false;
 
         // point is on an existing edge -> remove the edge
         if (QuadEdge.isOnLine(e, p)) {
             e = e.previous();
-            this.quadEdge.remove(e.next().symmetric());
-            this.quadEdge.remove(e.next());
+            removeQuadEdge(e.next().symmetric());
+            removeQuadEdge(e.next());
             QuadEdge.deleteEdge(e.next());
         }
 
         // Connect the new point to the vertices of the containing triangle
         // (or quadrilateral in case of the point is on an existing edge)
         QuadEdge base = QuadEdge.makeEdge(e.orig(), p);
-        this.quadEdge.add(base);
+        addQuadEdge(base);
 
         QuadEdge.splice(base, e);
         this.startingEdge = base;
         do {
             base = QuadEdge.connect(e, base.symmetric());
-            this.quadEdge.add(base);
+            addQuadEdge(base);
             e = base.previous();
         } while (e.leftNext() != startingEdge);
 
@@ -163,12 +406,318 @@ public class Delaunay {
                     QuadEdge.inCircle(e.orig(), t.destination(), e.destination(), p)) {
                 // flip triangles
                 QuadEdge.swapEdge(e);
+                totalFlips++;
                 e = e.previous();
             } else if (e.next() == startingEdge)
-                return; // no more suspect edges
+                break; // no more suspect edges
             else
                 e = e.next().leftPrevious();  // next suspect edge
         } while (true);
+
+        return true;
+    }
+
+    /**
+     * Removes a point from a Delaunay triangulation, its region being replaced by the last one in
+     * the list of regions (the others keep their index)
+     * <p>
+     * Only the star of the point is triangulated again (see {@link #removeStar(QuadEdge)}): the
+     * cost depends on its degree, not on the number of points.
+     *
+     * @param p the point to remove
+     * @return false if the point is not a site of the triangulation
+     */
+    public boolean removePoint(PVector p) {
+        Site site = sites.remove(p);
+        if (site == null) return false;
+
+        removeStar(edgeFrom(site, p));
+
+        int last = voronoi.size() - 1;
+        Site lastSite = regionSites.remove(last);
+        List<PVector> lastRegion = voronoi.remove(last);
+        if (lastSite != site) {
+            lastSite.index = site.index;
+            regionSites.set(site.index, lastSite);
+            voronoi.set(site.index, lastRegion);
+        }
+        site.index = -1; // skipped if it is still dirty (see computeVoronoi())
+        return true;
+    }
+
+    /**
+     * Moves a point of a Delaunay triangulation: the point is removed, then the new one is inserted
+     * in its place in the list of regions
+     * <p>
+     * Only the stars of the two positions are triangulated again, the walk locating the new
+     * position starting from the old one (unless the new position grows the bounding box, see
+     * {@link #setBoundingBox(float, float, float, float)}).
+     *
+     * @param from the point to move
+     * @param to   its new position, which replaces it as a site
+     * @return false if from is not a site of the triangulation, or if to is already one
+     */
+    public boolean movePoint(PVector from, PVector to) {
+        Site site = sites.get(from);
+        if (site == null || (sites.containsKey(to) && !to.equals(from))) return false;
+
+        sites.remove(from);
+        removeStar(edgeFrom(site, from));
+
+        connectPoint(to);
+        sites.put(to, site);
+        invalidateStar(startingEdge.symmetric());
+        return true;
+    }
+
+    // an edge starting from a site: the one remembered by markDirty(), unless it has been flipped
+    private QuadEdge edgeFrom(Site site, PVector p) {
+        QuadEdge e = site.edge;
+        if (e != null && e.next() != e && e.orig().x == p.x && e.orig().y == p.y) return e;
+
+        e = locate(p);
+        return e.orig().x == p.x && e.orig().y == p.y ? e : e.symmetric();
+    }
+
+    /**
+     * Deletes the edges starting from a point, then triangulates the hole left, ear by ear
+     * (Devillers): the point lies inside the circumcircle of every convex ear, and the one giving it
+     * the largest power (the first ear the point would leave as it is lifted away from the
+     * paraboloid) is a Delaunay triangle. The neighbours of the point are marked as dirty.
+     *
+     * @param star an edge starting from the point
+     */
+    private void removeStar(QuadEdge star) {
+        PVector p = star.orig();
+
+        // boundary of the hole, counterclockwise: the edge from each neighbour to the next one
+        List<QuadEdge> spokes = new ArrayList<>();
+        List<QuadEdge> boundary = new ArrayList<>();
+        QuadEdge q = star;
+        do {
+            spokes.add(q);
+            boundary.add(q.leftNext());
+            q = q.next();
+        } while (q != star);
+
+        for (QuadEdge spoke : spokes) {
+            removeQuadEdge(spoke);
+            removeQuadEdge(spoke.symmetric());
+            QuadEdge.deleteEdge(spoke);
+        }
+        // every face of the hole is new: forget the circumcenters on this side of its boundary
+        // (the edges closing the ears come without any)
+        for (QuadEdge edge : boundary) {
+            edge.rot().setOrigin(null);
+            markDirty(edge);
+        }
+        this.startingEdge = boundary.get(0);
+
+        while (boundary.size() > 3) {
+            int size = boundary.size();
+            int ear = -1;
+            double earPower = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                QuadEdge a = boundary.get(i);
+                QuadEdge b = boundary.get(i + 1 == size ? 0 : i + 1);
+                if (!QuadEdge.isCounterClockwise(a.orig(), a.destination(), b.destination())) continue;
+
+                double power = power(a.orig(), a.destination(), b.destination(), p);
+                if (power > earPower) {
+                    ear = i;
+                    earPower = power;
+                }
+            }
+
+            // close the ear (a, b) with an edge from the end of b to the origin of a
+            int next = ear + 1 == size ? 0 : ear + 1;
+            QuadEdge a = boundary.get(ear);
+            QuadEdge b = boundary.get(next);
+            QuadEdge closing = QuadEdge.connect(b, a);
+            addQuadEdge(closing);
+
+            boundary.set(ear, closing.symmetric());
+            boundary.remove(next);
+        }
+    }
+
+    /**
+     * Power of the point p with respect to the circumcircle of the counterclockwise triangle a, b, c
+     * (negative inside the circle), in the frame of p
+     */
+    private static double power(PVector a, PVector b, PVector c, PVector p) {
+        double ax = (double) a.x - p.x;
+        double ay = (double) a.y - p.y;
+        double bx = (double) b.x - p.x;
+        double by = (double) b.y - p.y;
+        double cx = (double) c.x - p.x;
+        double cy = (double) c.y - p.y;
+
+        double inCircle = (ax * ax + ay * ay) * (bx * cy - cx * by)
+                + (bx * bx + by * by) * (cx * ay - ax * cy)
+                + (cx * cx + cy * cy) * (ax * by - bx * ay);
+        double orientation = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+        return -inCircle / orientation;
+    }
+
+    /**
+     * The faces created by an insertion are exactly the faces around the new point, and
+     * the sites whose region changed are the new point and its neighbours:
+     * forget the circumcenters of these faces and mark these sites as dirty.
+     *
+     * @param star an edge starting from the new point
+     */
+    private void invalidateStar(QuadEdge star) {
+        QuadEdge q = star;
+        do {
+            QuadEdge q2 = q.leftNext();
+            QuadEdge q3 = q2.leftNext();
+            q.rot().setOrigin(null);
+            q2.rot().setOrigin(null);
+            q3.rot().setOrigin(null);
+
+            markDirty(q);
+            markDirty(q.symmetric());
+
+            q = q.next();
+        } while (q != star);
+    }
+
+    // mark the region of the origin of the edge as dirty, and remember the edge to walk around it
+    private void markDirty(QuadEdge q) {
+        Site site = sites.get(q.orig());
+        if (site == null) return; // corner of the bounding box
+
+        site.edge = q;
+        if (!site.dirty) {
+            site.dirty = true;
+            dirtySites.add(site);
+        }
+    }
+
+    /**
+     * Inserts a set of points into a Delaunay triangulation, in BRIO order
+     * (see {@link InsertionOrder})
+     *
+     * @param points the points to insert
+     */
+    public void insertAll(Collection<PVector> points) {
+        PVector[] sites = points.toArray(new PVector[0]);
+        float[] coordinates = new float[2 * sites.length];
+        for (int i = 0; i < sites.length; i++) {
+            coordinates[2 * i] = sites[i].x;
+            coordinates[2 * i + 1] = sites[i].y;
+        }
+        insertAll(sites, coordinates);
+    }
+
+    /**
+     * Inserts a set of points into a Delaunay triangulation, in BRIO order
+     * (see {@link InsertionOrder})
+     *
+     * @param coordinates interleaved coordinates of the points to insert (x0, y0, x1, y1...)
+     */
+    public void insertAll(float[] coordinates) {
+        PVector[] sites = new PVector[coordinates.length / 2];
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = new PVector(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+        insertAll(sites, coordinates);
+    }
+
+    private void insertAll(PVector[] sites, float[] coordinates) {
+        if (sites.length == 0) return;
+
+        // grow the bounding box once, so that it does not move during the insertions
+        float minX = boundingBox.minX;
+        float minY = boundingBox.minY;
+        float maxX = boundingBox.maxX;
+        float maxY = boundingBox.maxY;
+        for (PVector p : sites) {
+            minX = Math.min(minX, p.x);
+            minY = Math.min(minY, p.y);
+            maxX = Math.max(maxX, p.x);
+            maxY = Math.max(maxY, p.y);
+        }
+        setBoundingBox(minX, minY, maxX, maxY);
+
+        for (int i : InsertionOrder.brio(coordinates)) {
+            insertPoint(sites[i]);
+        }
+    }
+
+    /**
+     * Builds the Delaunay triangulation of a set of points by divide and conquer
+     * (Guibas and Stolfi, see {@link DivideAndConquer}), the halves being triangulated in parallel
+     * on a pool
+     * <p>
+     * The points and the corners of the bounding box are triangulated at once: the result has the
+     * same triangles as {@link #insertAll(Collection)} on a new triangulation, and the same Voronoi
+     * regions in the same order (each one may start from another vertex). Points can then be
+     * inserted, moved or removed as in any other triangulation.
+     * <p>
+     * This only holds for points in general position: when four of them are co-circular (e.g. on a
+     * grid), both triangulations are Delaunay ones but may split their circle with different
+     * diagonals, so that the triangles differ and the regions only match as sets of points.
+     *
+     * @param points the points to triangulate
+     * @param pool   the pool the halves are triangulated on
+     * @return the triangulation of the points
+     */
+    public static Delaunay divideAndConquer(Collection<PVector> points, ForkJoinPool pool) {
+        Delaunay delaunay = new Delaunay();
+        if (points.isEmpty()) return delaunay;
+
+        PVector[] sites = points.toArray(new PVector[0]);
+        float[] coordinates = new float[2 * sites.length];
+        float minX = delaunay.boundingBox.minX;
+        float minY = delaunay.boundingBox.minY;
+        float maxX = delaunay.boundingBox.maxX;
+        float maxY = delaunay.boundingBox.maxY;
+        for (int i = 0; i < sites.length; i++) {
+            PVector p = sites[i];
+            coordinates[2 * i] = p.x;
+            coordinates[2 * i + 1] = p.y;
+            minX = Math.min(minX, p.x);
+            minY = Math.min(minY, p.y);
+            maxX = Math.max(maxX, p.x);
+            maxY = Math.max(maxY, p.y);
+        }
+        delaunay.setBoundingBox(minX, minY, maxX, maxY);
+
+        // number the regions as insertAll() would, the duplicates being dropped
+        PVector[] vertices = new PVector[sites.length + 4];
+        int vertexCount = 0;
+        for (int i : InsertionOrder.brio(coordinates)) {
+            PVector p = sites[i];
+            if (delaunay.sites.containsKey(p)) continue;
+
+            delaunay.addSite(p);
+            vertices[vertexCount++] = p;
+        }
+        vertices[vertexCount++] = delaunay.boundingBox.a;
+        vertices[vertexCount++] = delaunay.boundingBox.b;
+        vertices[vertexCount++] = delaunay.boundingBox.c;
+        vertices[vertexCount++] = delaunay.boundingBox.d;
+
+        Arrays.parallelSort(vertices, 0, vertexCount, Comparator.<PVector>comparingDouble(p -> p.x).thenComparingDouble(p -> p.y));
+        QuadEdge hull = pool.invoke(new DivideAndConquer(vertices, 0, vertexCount))[0];
+
+        // list the edges of the graph, each site keeping one of its edges
+        ArrayDeque<QuadEdge> stack = new ArrayDeque<>();
+        stack.push(hull);
+        while (!stack.isEmpty()) {
+            QuadEdge q = stack.pop();
+            if (q.slot() >= 0 || q.symmetric().slot() >= 0) continue;
+
+            delaunay.addQuadEdge(q);
+            delaunay.markDirty(q);
+            delaunay.markDirty(q.symmetric());
+            stack.push(q.next());
+            stack.push(q.symmetric().next());
+        }
+        delaunay.startingEdge = hull;
+        return delaunay;
     }
 
     /**
@@ -178,6 +727,7 @@ public class Delaunay {
         List<PVector[]> edges = new ArrayList<>();
         // do not return edges pointing to/from surrounding triangle
         for (QuadEdge q : this.quadEdge) {
+            if (q == null) continue;
             if ((q.orig() == boundingBox.a || q.orig() == boundingBox.b || q.orig() == boundingBox.c || q.orig() == boundingBox.d)
                || (q.destination() == boundingBox.a || q.destination() == boundingBox.b || q.destination() == boundingBox.c || q.destination() == boundingBox.d))
                 continue;
@@ -195,6 +745,7 @@ public class Delaunay {
         // do not process edges pointing to/from surrounding triangle
         // --> mark() them as already computed
         for (QuadEdge q : this.quadEdge) {
+            if (q == null) continue;
             q.setMark(false);
             q.symmetric().setMark(false);
             if (q.orig() == boundingBox.a || q.orig() == boundingBox.b || q.orig() == boundingBox.c || q.orig() == boundingBox.d) {
@@ -207,6 +758,8 @@ public class Delaunay {
 
         // compute the 2 triangles associated to each quadEdge
         for (QuadEdge q1 : quadEdge) {
+            if (q1 == null) continue;
+
             // first triangle
             QuadEdge q2 = q1.leftNext();
             QuadEdge q3 = q2.leftNext();
@@ -230,55 +783,77 @@ public class Delaunay {
         return triangles;
     }
 
+    /**
+     * compute and return the list of Voronoi regions, in the insertion order of the sites (the
+     * region of a removed site being replaced by the last one)
+     * <p>
+     * Only the regions changed since the previous call are recomputed, and circumcenters of the
+     * faces left untouched are reused. The returned list is a read-only view, updated by the
+     * next call.
+     */
     public List<List<PVector>> computeVoronoi() {
-        List<List<PVector>> voronoi = new ArrayList<>();
-
-        // do not process edges pointing to/from surrounding triangle
-        // --> mark() them as already computed
-        for (QuadEdge q : this.quadEdge) {
-            q.setMark(false);
-            q.symmetric().setMark(false);
-            if (q.orig() == boundingBox.a || q.orig() == boundingBox.b || q.orig() == boundingBox.c || q.orig() == boundingBox.d) {
-                q.setMark(true);
+        if (voronoiInvalidated) {
+            // the corners of the bounding box moved: forget every circumcenter
+            for (QuadEdge q : this.quadEdge) {
+                if (q == null) continue;
+                q.rot().setOrigin(null);
+                q.symmetric().rot().setOrigin(null);
             }
-            if (q.destination() == boundingBox.a || q.destination() == boundingBox.b || q.destination() == boundingBox.c || q.destination() == boundingBox.d) {
-                q.symmetric().setMark(true);
+            for (Site site : sites.values()) {
+                if (!site.dirty) {
+                    site.dirty = true;
+                    dirtySites.add(site);
+                }
             }
+            voronoiInvalidated = false;
         }
 
-        for (QuadEdge qe : quadEdge) {
+        for (Site site : dirtySites) {
+            if (site.index < 0) continue; // removed site
+            voronoi.set(site.index, computeRegion(site.edge));
+            site.dirty = false;
+        }
+        dirtySites.clear();
 
-            // walk through left and right region
-            for (int b = 0; b <= 1; b++) {
-                QuadEdge qStart = (b == 0) ? qe : qe.symmetric();
-                if (qStart.mark()) {
-                    continue;
-                }
+        return Collections.unmodifiableList(voronoi);
+    }
 
-                // new region start
-                List<PVector> poly = new ArrayList<>();
+    /**
+     * compute and return the list of Voronoi regions clipped to a rectangle,
+     * the regions lying outside the rectangle being dropped
+     *
+     * @param minX, minY, maxX, maxY summits of the clipping rectangle
+     */
+    public List<List<PVector>> computeVoronoi(float minX, float minY, float maxX, float maxY) {
+        RegionClipper clipper = new RegionClipper(minX, minY, maxX, maxY);
+        List<List<PVector>> clipped = new ArrayList<>();
+        for (List<PVector> region : computeVoronoi()) {
+            List<PVector> poly = clipper.clip(region);
+            if (!poly.isEmpty()) {
+                clipped.add(poly);
+            }
+        }
+        return clipped;
+    }
 
-                // walk around region
-                QuadEdge qRegion = qStart;
-                do {
-                    qRegion.setMark(true);
+    // walk around the origin of the edge, collecting the circumcenters of the faces
+    private static List<PVector> computeRegion(QuadEdge qStart) {
+        List<PVector> poly = new ArrayList<>();
 
-                    // compute CircumCenter if needed
-                    if (qRegion.rot().orig() == null) {
-                        PVector p = getCircumCenter(qRegion);
-                        qRegion.rot().setOrigin(p);
-                    }
+        QuadEdge qRegion = qStart;
+        do {
+            // compute CircumCenter if needed
+            if (qRegion.rot().orig() == null) {
+                PVector p = getCircumCenter(qRegion);
+                qRegion.rot().setOrigin(p);
+            }
 
-                    poly.add(qRegion.rot().orig());
+            poly.add(qRegion.rot().orig());
 
-                    qRegion = qRegion.next();
-                } while(!qRegion.equals(qStart));
+            qRegion = qRegion.next();
+        } while (qRegion != qStart);
 
-                // add region to output list
-                voronoi.add(poly);
-            }
-        }
-        return voronoi;
+        return Collections.unmodifiableList(poly);
     }
 
     private static PVector getCircumCenter(QuadEdge q1) {
@@ -288,16 +863,16 @@ public class Delaunay {
         QuadEdge q3 = q2.leftNext();
         PVector p2 = q3.orig();
 
-        float ex = p1.x - p0.x;
-        float ey = p1.y - p0.y;
-        float nx = p2.y - p1.y;
-        float ny = p1.x - p2.x;
-        float dx = (p0.x - p2.x) * 0.5f;
-        float dy = (p0.y - p2.y) * 0.5f;
-        float s = (ex * dx + ey * dy) / (ex * nx + ey * ny);
-        float cx = (p1.x + p2.x) * 0.5f + s * nx;
-        float cy = (p1.y + p2.y) * 0.5f + s * ny;
-
-        return new PVector((int) cx, (int) cy);
+        double ex = (double) p1.x - p0.x;
+        double ey = (double) p1.y - p0.y;
+        double nx = (double) p2.y - p1.y;
+        double ny = (double) p1.x - p2.x;
+        double dx = ((double) p0.x - p2.x) * 0.5;
+        double dy = ((double) p0.y - p2.y) * 0.5;
+        double s = (ex * dx + ey * dy) / (ex * nx + ey * ny);
+        double cx = ((double) p1.x + p2.x) * 0.5 + s * nx;
+        double cy = ((double) p1.y + p2.y) * 0.5 + s * ny;
+
+        return new PVector((float) cx, (float) cy);
     }
 }
@@ -0,0 +1,159 @@
+package voronoi;
+
+import processing.core.PVector;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Divide and conquer construction of a Delaunay triangulation (Guibas and Stolfi).
+ * <p>
+ * The vertices, sorted by x then y and without duplicates, are split in two halves at the median,
+ * each half is triangulated recursively and the two triangulations are merged by zipping them from
+ * their lower common tangent up. The sort and each level of merges being linear, the construction
+ * is O(n log n) whatever the order and the distribution of the vertices.
+ * <p>
+ * Above FORK_THRESHOLD vertices the two halves are triangulated in parallel: they share no edge
+ * until they are merged, after both tasks joined.
+ */
+final class DivideAndConquer extends RecursiveTask<QuadEdge[]> {
+    private static final long serialVersionUID = 1L;
+
+    // below this number of vertices the halves are triangulated in the current thread
+    static final int FORK_THRESHOLD = 1 << 13;
+
+    private final PVector[] vertices;
+    private final int from;
+    private final int to;
+
+    /**
+     * @param vertices the vertices, sorted by x then y, without duplicates
+     * @param from     the first vertex of the range to triangulate (inclusive)
+     * @param to       the last vertex of the range to triangulate (exclusive), at least 2 vertices after from
+     */
+    DivideAndConquer(PVector[] vertices, int from, int to) {
+        this.vertices = vertices;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @return the counterclockwise convex hull edge out of the leftmost vertex, and the clockwise
+     * convex hull edge out of the rightmost vertex
+     */
+    @Override
+    protected QuadEdge[] compute() {
+        if (to - from < FORK_THRESHOLD) {
+            return triangulate(vertices, from, to);
+        }
+
+        int middle = (from + to) >>> 1;
+        DivideAndConquer left = new DivideAndConquer(vertices, from, middle);
+        DivideAndConquer right = new DivideAndConquer(vertices, middle, to);
+        right.fork();
+        QuadEdge[] l = left.compute();
+        QuadEdge[] r = right.join();
+        return merge(l[0], l[1], r[0], r[1]);
+    }
+
+    private static QuadEdge[] triangulate(PVector[] vertices, int from, int to) {
+        int n = to - from;
+        if (n == 2) {
+            QuadEdge a = QuadEdge.makeEdge(vertices[from], vertices[from + 1]);
+            return new QuadEdge[]{a, a.symmetric()};
+        }
+
+        if (n == 3) {
+            PVector s1 = vertices[from];
+            PVector s2 = vertices[from + 1];
+            PVector s3 = vertices[from + 2];
+            QuadEdge a = QuadEdge.makeEdge(s1, s2);
+            QuadEdge b = QuadEdge.makeEdge(s2, s3);
+            QuadEdge.splice(a.symmetric(), b);
+
+            // close the triangle, unless the three vertices are collinear
+            if (QuadEdge.isCounterClockwise(s1, s2, s3)) {
+                QuadEdge.connect(b, a);
+                return new QuadEdge[]{a, b.symmetric()};
+            } else if (QuadEdge.isCounterClockwise(s1, s3, s2)) {
+                QuadEdge c = QuadEdge.connect(b, a);
+                return new QuadEdge[]{c.symmetric(), c};
+            }
+            return new QuadEdge[]{a, b.symmetric()};
+        }
+
+        int middle = (from + to) >>> 1;
+        QuadEdge[] l = triangulate(vertices, from, middle);
+        QuadEdge[] r = triangulate(vertices, middle, to);
+        return merge(l[0], l[1], r[0], r[1]);
+    }
+
+    /**
+     * Merge two triangulations separated by a vertical line
+     *
+     * @param ldo, ldi the counterclockwise hull edge out of the leftmost vertex of the left triangulation,
+     *             and the clockwise hull edge out of its rightmost vertex
+     * @param rdi, rdo the counterclockwise hull edge out of the leftmost vertex of the right triangulation,
+     *             and the clockwise hull edge out of its rightmost vertex
+     * @return the hull edges of the merged triangulation, as for compute()
+     */
+    private static QuadEdge[] merge(QuadEdge ldo, QuadEdge ldi, QuadEdge rdi, QuadEdge rdo) {
+        // lower common tangent of the two hulls
+        while (true) {
+            if (isAtLeftOf(ldi, rdi.orig())) {
+                ldi = ldi.leftNext();
+            } else if (QuadEdge.isAtRightOf(rdi, ldi.orig())) {
+                rdi = rdi.symmetric().next();
+            } else {
+                break;
+            }
+        }
+
+        // first cross edge, from the right triangulation to the left one
+        QuadEdge basel = QuadEdge.connect(rdi.symmetric(), ldi);
+        if (ldi.orig() == ldo.orig()) ldo = basel.symmetric();
+        if (rdi.orig() == rdo.orig()) rdo = basel;
+
+        // zip the two triangulations up, deleting the edges failing the Delaunay condition
+        while (true) {
+            QuadEdge lcand = basel.symmetric().next();
+            if (isAbove(lcand, basel)) {
+                while (QuadEdge.inCircle(basel.destination(), basel.orig(), lcand.destination(), lcand.next().destination())) {
+                    QuadEdge t = lcand.next();
+                    QuadEdge.deleteEdge(lcand);
+                    lcand = t;
+                }
+            }
+
+            QuadEdge rcand = basel.previous();
+            if (isAbove(rcand, basel)) {
+                while (QuadEdge.inCircle(basel.destination(), basel.orig(), rcand.destination(), rcand.previous().destination())) {
+                    QuadEdge t = rcand.previous();
+                    QuadEdge.deleteEdge(rcand);
+                    rcand = t;
+                }
+            }
+
+            boolean leftValid = isAbove(lcand, basel);
+            boolean rightValid = isAbove(rcand, basel);
+            if (!leftValid && !rightValid) {
+                break; // upper common tangent reached
+            }
+
+            if (!leftValid || (rightValid && QuadEdge.inCircle(lcand.destination(), lcand.orig(), rcand.orig(), rcand.destination()))) {
+                basel = QuadEdge.connect(rcand, basel.symmetric());
+            } else {
+                basel = QuadEdge.connect(basel.symmetric(), lcand.symmetric());
+            }
+        }
+        return new QuadEdge[]{ldo, rdo};
+    }
+
+    private static boolean isAtLeftOf(QuadEdge q, PVector p) {
+        return QuadEdge.isCounterClockwise(p, q.orig(), q.destination());
+    }
+
+    // the candidate edge leads above the base edge: it may be the next cross edge
+    private static boolean isAbove(QuadEdge candidate, QuadEdge basel) {
+        return QuadEdge.isAtRightOf(basel, candidate.destination());
+    }
+}
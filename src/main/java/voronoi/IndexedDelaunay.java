@@ -0,0 +1,783 @@
+package voronoi;
+
+import processing.core.PVector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Struct-of-arrays variant of {@link Delaunay}.
+ * <p>
+ * Each quad-edge q owns the four records 4q..4q+3 of the {@code next} and {@code origin} arrays,
+ * so that rot() is simply the next record of the same quad and no object is allocated per edge.
+ * The sites are stored in the {@code x} and {@code y} arrays, the first four vertices being the
+ * corners of the bounding box.
+ * <p>
+ * The insertion walk, the edge order and the predicates mirror {@link Delaunay} so that both
+ * backends produce the same triangles and Voronoi regions for the same input (up to the
+ * tie-breaking of co-circular sites, which depends on where the walk starts). In particular, the
+ * corners of the bounding box are moved and the triangles around them repaired the same way when
+ * an insertion grows the extent of the sites (see {@link #setBoundingBox(float, float, float, float)}).
+ */
+public class IndexedDelaunay {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // number of the corners of the bounding box (vertices 0..3)
+    private static final int BOUNDING_BOX_VERTICES = 4;
+
+    // next (direct order) record on the ring of each record
+    private int[] next;
+
+    // origin vertex of each primal record (dual records are unused)
+    private int[] origin;
+
+    // marker for triangle generation
+    private boolean[] mark;
+
+    // removed quad-edges (indexed by quad, i.e. record / 4)
+    private boolean[] removed;
+
+    // number of records in use (4 per quad-edge)
+    private int recordCount;
+
+    // coordinates of the vertices
+    private float[] x;
+    private float[] y;
+    private int vertexCount;
+
+    // an edge starting from each vertex (see computeVoronoi() method)
+    private int[] vertexEdge;
+
+    // starting edge for walk (see locate() method)
+    private int startingEdge;
+
+    // state of the xorshift generator sampling the starting edges (see locate() method)
+    private int sampleState = 0x9E3779B9;
+
+    // walk steps of the last locate() and since the creation of the triangulation
+    private int lastWalkSteps;
+    private long totalWalkSteps;
+
+    // extent of the inserted sites
+    private float minX;
+    private float minY;
+    private float maxX;
+    private float maxY;
+
+    /**
+     * Constructor:
+     */
+    public IndexedDelaunay() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor:
+     *
+     * @param expectedSites number of sites to reserve room for
+     */
+    public IndexedDelaunay(int expectedSites) {
+        int sites = Math.max(expectedSites, 1) + BOUNDING_BOX_VERTICES;
+        // a triangulation of n vertices has at most 3n edges
+        int records = 4 * 3 * sites;
+        next = new int[records];
+        origin = new int[records];
+        mark = new boolean[records];
+        removed = new boolean[records / 4];
+        x = new float[sites];
+        y = new float[sites];
+        vertexEdge = new int[sites];
+
+        minX = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxY = Integer.MIN_VALUE;
+
+        // bounding box corners: a (lower left), b (lower right), c (upper right), d (upper left)
+        for (int i = 0; i < BOUNDING_BOX_VERTICES; i++) {
+            addVertex(0, 0);
+        }
+
+        this.startingEdge = makeFrame();
+    }
+
+    // create the QuadEdge graph of the bounding box (records 0..15), returning its edge from a to b
+    private int makeFrame() {
+        int ab = makeEdge(0, 1);
+        int bc = makeEdge(1, 2);
+        int cd = makeEdge(2, 3);
+        int da = makeEdge(3, 0);
+        splice(symmetric(ab), bc);
+        splice(symmetric(bc), cd);
+        splice(symmetric(cd), da);
+        splice(symmetric(da), ab);
+        return ab;
+    }
+
+    /**
+     * update the dimension of the bounding box, which has to contain the points already inserted
+     * <p>
+     * The corners of the bounding box are vertices of the triangulation: once they are moved, the
+     * edges around them are flipped until the triangulation is a Delaunay one again.
+     *
+     * @param minX, minY, maxX, maxY summits of the rectangle
+     */
+    public void setBoundingBox(float minX, float minY, float maxX, float maxY) {
+        // update saved values
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+
+        // extend the bounding-box to surround min/max
+        float centerX = (minX + maxX) / 2;
+        float centerY = (minY + maxY) / 2;
+        float xMin = (minX - centerX - 1) * 10 + centerX;
+        float xMax = (maxX - centerX + 1) * 10 + centerX;
+        float yMin = (minY - centerY - 1) * 10 + centerY;
+        float yMax = (maxY - centerY + 1) * 10 + centerY;
+
+        // set new positions
+        x[0] = xMin;
+        y[0] = yMin;
+        x[1] = xMax;
+        y[1] = yMin;
+        x[2] = xMax;
+        y[2] = yMax;
+        x[3] = xMin;
+        y[3] = yMax;
+
+        if (siteCount() > 0) {
+            restoreCorners();
+        }
+    }
+
+    /**
+     * Restores the Delaunay condition after the corners of the bounding box moved (Lawson flips
+     * from the edges whose quadrilateral has a corner as a vertex), or triangulates the sites again
+     * if a corner turned one of its triangles over (see {@link Delaunay}).
+     */
+    private void restoreCorners() {
+        ArrayDeque<Integer> suspects = new ArrayDeque<>();
+        for (int q = firstRecord(); q < recordCount; q += 4) {
+            if (removed[q >> 2]) continue;
+            if (isBoundingBoxVertex(origin[q]) && !pushCornerEdge(q, suspects)) {
+                rebuild();
+                return;
+            }
+            if (isBoundingBoxVertex(destination(q)) && !pushCornerEdge(symmetric(q), suspects)) {
+                rebuild();
+                return;
+            }
+        }
+
+        while (!suspects.isEmpty()) {
+            int e = suspects.pop();
+            if (!isTriangle(e) || !isTriangle(symmetric(e))) continue; // side of the bounding box
+
+            int right = destination(leftNext(symmetric(e)));
+            if (!inCircle(origin[e], destination(e), destination(leftNext(e)), right)) continue;
+
+            swapEdge(e);
+            suspects.push(leftNext(e));
+            suspects.push(leftPrevious(e));
+            suspects.push(leftNext(symmetric(e)));
+            suspects.push(leftPrevious(symmetric(e)));
+
+            // the four vertices of the quadrilateral keep an edge starting from them
+            vertexEdge[origin[e]] = e;
+            vertexEdge[destination(e)] = symmetric(e);
+            vertexEdge[origin[leftPrevious(e)]] = leftPrevious(e);
+            vertexEdge[origin[leftPrevious(symmetric(e))]] = leftPrevious(symmetric(e));
+        }
+    }
+
+    // queue an edge starting from a corner and the side opposite to the corner in its left face,
+    // false if this face is turned over
+    private boolean pushCornerEdge(int q, ArrayDeque<Integer> suspects) {
+        suspects.push(q);
+        if (!isTriangle(q)) return true; // outside of the bounding box
+
+        suspects.push(leftNext(q));
+        int o = origin[q];
+        int d = destination(q);
+        int opposite = destination(leftNext(q));
+        return Predicates.orientation(x[o], y[o], x[d], y[d], x[opposite], y[opposite]) > 0;
+    }
+
+    private boolean isTriangle(int q) {
+        return leftNext(leftNext(leftNext(q))) == q;
+    }
+
+    // triangulate the sites again in a new frame (in BRIO order), keeping their vertex numbers
+    private void rebuild() {
+        recordCount = 0;
+        Arrays.fill(removed, false);
+        this.startingEdge = makeFrame();
+
+        int sites = siteCount();
+        float[] coordinates = new float[2 * sites];
+        for (int i = 0; i < sites; i++) {
+            coordinates[2 * i] = x[BOUNDING_BOX_VERTICES + i];
+            coordinates[2 * i + 1] = y[BOUNDING_BOX_VERTICES + i];
+        }
+        for (int i : InsertionOrder.brio(coordinates)) {
+            int v = BOUNDING_BOX_VERTICES + i;
+            connectVertex(locate(x[v], y[v]), v);
+        }
+    }
+
+    // update the size of the bounding box (cf locate() method)
+    private void updateBoundingBox(float px, float py) {
+        setBoundingBox(Math.min(minX, px), Math.min(minY, py), Math.max(maxX, px), Math.max(maxY, py));
+    }
+
+    /**
+     * @return the number of sites inserted so far (duplicates excluded)
+     */
+    public int siteCount() {
+        return vertexCount - BOUNDING_BOX_VERTICES;
+    }
+
+    // ----------------------------------------------------------------
+    //                      QuadEdge Navigation
+    // ----------------------------------------------------------------
+
+    private static int rot(int e) {
+        return (e & ~3) | ((e + 1) & 3);
+    }
+
+    private static int symmetric(int e) {
+        return e ^ 2;
+    }
+
+    private static int symmetricDual(int e) {
+        return (e & ~3) | ((e + 3) & 3);
+    }
+
+    private int previous(int e) {
+        return rot(next[rot(e)]);
+    }
+
+    private int destinationPrevious(int e) {
+        return symmetricDual(next[symmetricDual(e)]);
+    }
+
+    private int leftNext(int e) {
+        return rot(next[symmetricDual(e)]);
+    }
+
+    private int leftPrevious(int e) {
+        return symmetric(next[e]);
+    }
+
+    private int destination(int e) {
+        return origin[symmetric(e)];
+    }
+
+    private static boolean isBoundingBoxVertex(int v) {
+        return v < BOUNDING_BOX_VERTICES;
+    }
+
+    // ----------------------------------------------------------------
+    //                      QuadEdge Construction
+    // ----------------------------------------------------------------
+
+    private int addVertex(float px, float py) {
+        if (vertexCount == x.length) {
+            int capacity = x.length * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            vertexEdge = Arrays.copyOf(vertexEdge, capacity);
+        }
+        x[vertexCount] = px;
+        y[vertexCount] = py;
+        return vertexCount++;
+    }
+
+    private int makeEdge(int orig, int dest) {
+        if (recordCount == next.length) {
+            int capacity = next.length * 2;
+            next = Arrays.copyOf(next, capacity);
+            origin = Arrays.copyOf(origin, capacity);
+            mark = Arrays.copyOf(mark, capacity);
+            removed = Arrays.copyOf(removed, capacity / 4);
+        }
+        int q = recordCount;
+        recordCount += 4;
+
+        origin[q] = orig;
+        origin[q + 1] = NONE;
+        origin[q + 2] = dest;
+        origin[q + 3] = NONE;
+
+        // lonely segment, and 2 communicating facets in the dual
+        next[q] = q;
+        next[q + 1] = q + 3;
+        next[q + 2] = q + 2;
+        next[q + 3] = q + 1;
+
+        return q;
+    }
+
+    private void splice(int a, int b) {
+        int alpha = rot(next[a]);
+        int beta = rot(next[b]);
+
+        int t1 = next[b];
+        int t2 = next[a];
+        int t3 = next[beta];
+        int t4 = next[alpha];
+
+        next[a] = t1;
+        next[b] = t2;
+        next[alpha] = t3;
+        next[beta] = t4;
+    }
+
+    private int connect(int e1, int e2) {
+        int q = makeEdge(destination(e1), origin[e2]);
+        splice(q, leftNext(e1));
+        splice(symmetric(q), e2);
+        return q;
+    }
+
+    private void swapEdge(int e) {
+        int a = previous(e);
+        int b = previous(symmetric(e));
+        splice(e, a);
+        splice(symmetric(e), b);
+        splice(e, leftNext(a));
+        splice(symmetric(e), leftNext(b));
+        origin[e] = destination(a);
+        origin[symmetric(e)] = destination(b);
+    }
+
+    private void deleteEdge(int q) {
+        splice(q, previous(q));
+        splice(symmetric(q), previous(symmetric(q)));
+        removed[q >> 2] = true;
+    }
+
+    // ----------------------------------------------------------------
+    //                      Geometric computation
+    // ----------------------------------------------------------------
+
+    private boolean isOnLine(int e, float px, float py) {
+        int o = origin[e];
+        int d = destination(e);
+        return Predicates.orientation(x[o], y[o], x[d], y[d], px, py) == 0;
+    }
+
+    private boolean isAtRightOf(int e, float px, float py) {
+        int o = origin[e];
+        int d = destination(e);
+        return Predicates.orientation(px, py, x[d], y[d], x[o], y[o]) > 0;
+    }
+
+    private boolean inCircle(int a, int b, int c, int d) {
+        return Predicates.inCircle(x[a], y[a], x[b], y[b], x[c], y[c], x[d], y[d]) > 0;
+    }
+
+    // ----------------------------------------------------------------
+    //                      Triangulation
+    // ----------------------------------------------------------------
+
+    /**
+     * @return the number of walk steps taken by the last insertion
+     */
+    public int getLastWalkSteps() {
+        return lastWalkSteps;
+    }
+
+    /**
+     * @return the number of walk steps taken by all the insertions
+     */
+    public long getTotalWalkSteps() {
+        return totalWalkSteps;
+    }
+
+    /**
+     * Jump step of the jump-and-walk point location (Mücke, Saias and Zhu):
+     * samples about n^(1/3) edges and keeps the one whose origin is the closest to (px, py)
+     */
+    private int selectStartingEdge(float px, float py) {
+        int best = startingEdge;
+        float bestDistance = squaredDistance(origin[best], px, py);
+
+        int quads = (recordCount - firstRecord()) / 4;
+        int samples = (int) Math.cbrt(quads);
+        for (int i = 0; i < samples; i++) {
+            int q = firstRecord() + 4 * nextSample(quads);
+            if (removed[q >> 2]) continue;
+            float distance = squaredDistance(origin[q], px, py);
+            if (distance < bestDistance) {
+                best = q;
+                bestDistance = distance;
+            }
+            distance = squaredDistance(destination(q), px, py);
+            if (distance < bestDistance) {
+                best = symmetric(q);
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    // uniform index in [0, bound) from a xorshift generator (deterministic for a given insertion order)
+    private int nextSample(int bound) {
+        sampleState ^= sampleState << 13;
+        sampleState ^= sampleState >>> 17;
+        sampleState ^= sampleState << 5;
+        return (int) ((sampleState & 0xFFFFFFFFL) * bound >>> 32);
+    }
+
+    private float squaredDistance(int v, float px, float py) {
+        float dx = x[v] - px;
+        float dy = y[v] - py;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Returns an edge e of the triangle containing the point (px, py)
+     * (Guibas and Stolfi)
+     */
+    private int locate(float px, float py) {
+
+        /* outside the bounding box ? */
+        if (px < minX || px > maxX || py < minY || py > maxY) {
+            updateBoundingBox(px, py);
+        }
+
+        int e = selectStartingEdge(px, py);
+        lastWalkSteps = 0;
+        while (true) {
+            lastWalkSteps++;
+            totalWalkSteps++;
+
+            /* duplicate point ? */
+            int o = origin[e];
+            int d = destination(e);
+            if (px == x[o] && py == y[o]) return e;
+            if (px == x[d] && py == y[d]) return e;
+
+            /* walk */
+            if (isAtRightOf(e, px, py))
+                e = symmetric(e);
+            else if (!isAtRightOf(next[e], px, py))
+                e = next[e];
+            else if (!isAtRightOf(destinationPrevious(e), px, py))
+                e = destinationPrevious(e);
+            else
+                return e;
+        }
+    }
+
+    /**
+     * Inserts a new point into a Delaunay triangulation
+     * (Guibas and Stolfi)
+     *
+     * @param p the point to insert
+     */
+    public void insertPoint(PVector p) {
+        insertPoint(p.x, p.y);
+    }
+
+    /**
+     * Inserts a new point into a Delaunay triangulation
+     * (Guibas and Stolfi)
+     *
+     * @param px, py coordinates of the point to insert
+     */
+    public void insertPoint(float px, float py) {
+        int e = locate(px, py);
+
+        // point is a duplicate -> nothing to do
+        int o = origin[e];
+        int d = destination(e);
+        if (px == x[o] && py == y[o]) return;
+        if (px == x[d] && py == y[d]) return;
+
+        connectVertex(e, addVertex(px, py));
+    }
+
+    // connect the vertex p to the triangulation, e being an edge of the triangle containing it
+    private void connectVertex(int e, int p) {
+        float px = x[p];
+        float py = y[p];
+
+        // point is on an existing edge -> remove the edge
+        if (isOnLine(e, px, py)) {
+            e = previous(e);
+            deleteEdge(next[e]);
+        }
+
+        // Connect the new point to the vertices of the containing triangle
+        // (or quadrilateral in case of the point is on an existing edge)
+        int base = makeEdge(origin[e], p);
+
+        splice(base, e);
+        this.startingEdge = base;
+        do {
+            base = connect(e, symmetric(base));
+            e = previous(base);
+        } while (leftNext(e) != startingEdge);
+
+        // Examine suspect edges to ensure that the Delaunay condition is satisfied.
+        do {
+            int t = previous(e);
+
+            if (isAtRightOf(e, x[destination(t)], y[destination(t)]) &&
+                    inCircle(origin[e], destination(t), destination(e), p)) {
+                // flip triangles
+                swapEdge(e);
+                e = previous(e);
+            } else if (next[e] == startingEdge)
+                break; // no more suspect edges
+            else
+                e = leftPrevious(next[e]);  // next suspect edge
+        } while (true);
+
+        // the new point and its neighbours are the only vertices whose edges changed
+        int star = symmetric(startingEdge);
+        int q = star;
+        do {
+            vertexEdge[p] = q;
+            vertexEdge[destination(q)] = symmetric(q);
+            q = next[q];
+        } while (q != star);
+    }
+
+    /**
+     * Inserts a set of points into a Delaunay triangulation, in BRIO order
+     * (see {@link InsertionOrder})
+     *
+     * @param points the points to insert
+     */
+    public void insertAll(Collection<PVector> points) {
+        float[] coordinates = new float[2 * points.size()];
+        int i = 0;
+        for (PVector p : points) {
+            coordinates[i++] = p.x;
+            coordinates[i++] = p.y;
+        }
+        insertAll(coordinates);
+    }
+
+    /**
+     * Inserts a set of points into a Delaunay triangulation, in BRIO order
+     * (see {@link InsertionOrder})
+     *
+     * @param coordinates interleaved coordinates of the points to insert (x0, y0, x1, y1...)
+     */
+    public void insertAll(float[] coordinates) {
+        if (coordinates.length < 2) return;
+
+        // grow the bounding box once, so that it does not move during the insertions
+        float minX = this.minX;
+        float minY = this.minY;
+        float maxX = this.maxX;
+        float maxY = this.maxY;
+        for (int i = 0; i + 1 < coordinates.length; i += 2) {
+            minX = Math.min(minX, coordinates[i]);
+            minY = Math.min(minY, coordinates[i + 1]);
+            maxX = Math.max(maxX, coordinates[i]);
+            maxY = Math.max(maxY, coordinates[i + 1]);
+        }
+        setBoundingBox(minX, minY, maxX, maxY);
+
+        for (int i : InsertionOrder.brio(coordinates)) {
+            insertPoint(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+    }
+
+    // ----------------------------------------------------------------
+    //                      Output
+    // ----------------------------------------------------------------
+
+    // the quad-edges of the bounding box frame are not part of the output (cf Delaunay.quadEdge)
+    private int firstRecord() {
+        return 4 * BOUNDING_BOX_VERTICES;
+    }
+
+    private PVector vertex(int v) {
+        return new PVector(x[v], y[v]);
+    }
+
+    /**
+     * compute and return the list of edges
+     */
+    public List<PVector[]> computeEdges() {
+        List<PVector[]> edges = new ArrayList<>();
+        // do not return edges pointing to/from surrounding triangle
+        for (int q = firstRecord(); q < recordCount; q += 4) {
+            if (removed[q >> 2] || isBoundingBoxVertex(origin[q]) || isBoundingBoxVertex(destination(q)))
+                continue;
+            edges.add(new PVector[]{vertex(origin[q]), vertex(destination(q))});
+        }
+        return edges;
+    }
+
+    // mark() the edges pointing to/from surrounding triangle as already computed
+    private void resetMarks() {
+        for (int q = firstRecord(); q < recordCount; q += 4) {
+            if (removed[q >> 2]) continue;
+            mark[q] = isBoundingBoxVertex(origin[q]);
+            mark[symmetric(q)] = isBoundingBoxVertex(destination(q));
+        }
+    }
+
+    /**
+     * compute and return the list of triangles
+     */
+    public List<PVector[]> computeTriangles() {
+        int[] vertices = triangleVertices();
+        List<PVector[]> triangles = new ArrayList<>(vertices.length / 3);
+        for (int i = 0; i < vertices.length; i += 3) {
+            triangles.add(new PVector[]{vertex(vertices[i]), vertex(vertices[i + 1]), vertex(vertices[i + 2])});
+        }
+        return triangles;
+    }
+
+    /**
+     * compute and return the triangles as a flat array, without allocating an object per triangle
+     *
+     * @return the coordinates of the 3 vertices of each triangle (x0, y0, x1, y1, x2, y2...), in
+     * the order of {@link #computeTriangles()}
+     */
+    public float[] computeTriangleCoordinates() {
+        int[] vertices = triangleVertices();
+        float[] coordinates = new float[2 * vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            coordinates[2 * i] = x[vertices[i]];
+            coordinates[2 * i + 1] = y[vertices[i]];
+        }
+        return coordinates;
+    }
+
+    // the 3 vertices of each triangle (the 2 triangles associated to each quadEdge)
+    private int[] triangleVertices() {
+        // a triangulation of n vertices has at most 2n triangles
+        int[] vertices = new int[3 * 2 * vertexCount];
+        int count = 0;
+        resetMarks();
+
+        for (int q1 = firstRecord(); q1 < recordCount; q1 += 4) {
+            if (removed[q1 >> 2]) continue;
+
+            // first triangle
+            int q2 = leftNext(q1);
+            int q3 = leftNext(q2);
+            if (!mark[q1] && !mark[q2] && !mark[q3]) {
+                vertices[count++] = origin[q1];
+                vertices[count++] = origin[q2];
+                vertices[count++] = origin[q3];
+            }
+
+            // second triangle
+            int qSym1 = symmetric(q1);
+            int qSym2 = leftNext(qSym1);
+            int qSym3 = leftNext(qSym2);
+            if (!mark[qSym1] && !mark[qSym2] && !mark[qSym3]) {
+                vertices[count++] = origin[qSym1];
+                vertices[count++] = origin[qSym2];
+                vertices[count++] = origin[qSym3];
+            }
+
+            // mark() as used
+            mark[q1] = true;
+            mark[qSym1] = true;
+        }
+
+        return Arrays.copyOf(vertices, count);
+    }
+
+    /**
+     * Voronoi regions as primitive arrays: the vertices of the region i are the points
+     * (coordinates[2k], coordinates[2k + 1]) for offsets[i] &lt;= k &lt; offsets[i + 1]
+     */
+    public static class Regions {
+        public final float[] coordinates;
+        public final int[] offsets;
+
+        Regions(float[] coordinates, int[] offsets) {
+            this.coordinates = coordinates;
+            this.offsets = offsets;
+        }
+
+        /**
+         * @return the number of regions
+         */
+        public int size() {
+            return offsets.length - 1;
+        }
+    }
+
+    /**
+     * compute and return the list of Voronoi regions, in the insertion order of the sites
+     */
+    public List<List<PVector>> computeVoronoi() {
+        Regions regions = computeRegions();
+        List<List<PVector>> voronoi = new ArrayList<>(regions.size());
+
+        for (int i = 0; i < regions.size(); i++) {
+            List<PVector> poly = new ArrayList<>(regions.offsets[i + 1] - regions.offsets[i]);
+            for (int k = regions.offsets[i]; k < regions.offsets[i + 1]; k++) {
+                poly.add(new PVector(regions.coordinates[2 * k], regions.coordinates[2 * k + 1]));
+            }
+            voronoi.add(poly);
+        }
+        return voronoi;
+    }
+
+    /**
+     * compute and return the Voronoi regions as primitive arrays, without allocating an object per
+     * vertex (see {@link #computeVoronoi()})
+     */
+    public Regions computeRegions() {
+        int sites = siteCount();
+        int[] offsets = new int[sites + 1];
+        // each edge is a side of the regions of its 2 vertices, and there are at most 3n edges
+        float[] coordinates = new float[2 * 2 * 3 * vertexCount];
+        int count = 0;
+
+        for (int i = 0; i < sites; i++) {
+            // walk around region
+            int qStart = vertexEdge[BOUNDING_BOX_VERTICES + i];
+            int qRegion = qStart;
+            do {
+                circumCenter(qRegion, coordinates, 2 * count++);
+                qRegion = next[qRegion];
+            } while (qRegion != qStart);
+
+            offsets[i + 1] = count;
+        }
+        return new Regions(Arrays.copyOf(coordinates, 2 * count), offsets);
+    }
+
+    // store the circumcenter of the left face of q1 at coordinates[at], coordinates[at + 1]
+    private void circumCenter(int q1, float[] coordinates, int at) {
+        int q2 = leftNext(q1);
+        int q3 = leftNext(q2);
+        int p0 = origin[q1];
+        int p1 = origin[q2];
+        int p2 = origin[q3];
+
+        double ex = (double) x[p1] - x[p0];
+        double ey = (double) y[p1] - y[p0];
+        double nx = (double) y[p2] - y[p1];
+        double ny = (double) x[p1] - x[p2];
+        double dx = ((double) x[p0] - x[p2]) * 0.5;
+        double dy = ((double) y[p0] - y[p2]) * 0.5;
+        double s = (ex * dx + ey * dy) / (ex * nx + ey * ny);
+        double cx = ((double) x[p1] + x[p2]) * 0.5 + s * nx;
+        double cy = ((double) y[p1] + y[p2]) * 0.5 + s * ny;
+
+        coordinates[at] = (float) cx;
+        coordinates[at + 1] = (float) cy;
+    }
+}
@@ -0,0 +1,95 @@
+package voronoi;
+
+import java.util.Arrays;
+
+/**
+ * Biased randomized insertion order (Amenta, Choi and Rote) along a Hilbert curve.
+ * <p>
+ * The sites are dealt into rounds of geometrically increasing size (the last round holding about
+ * half of them), and each round is sorted along a Hilbert curve. Inserting the rounds one after
+ * the other keeps the randomized complexity of the incremental construction while every locate()
+ * walk starts next to the previous site.
+ */
+public final class InsertionOrder {
+    // the rounds, the Hilbert index and the site index are packed in a single long
+    private static final int ROUNDS = 7;
+    private static final int HILBERT_ORDER = 15;
+    private static final int INDEX_BITS = 30;
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private InsertionOrder() {
+    }
+
+    /**
+     * Compute the BRIO order of the sites
+     *
+     * @param coordinates interleaved coordinates of the sites (x0, y0, x1, y1...)
+     * @return the indices of the sites in insertion order
+     */
+    public static int[] brio(float[] coordinates) {
+        int n = coordinates.length / 2;
+        if (n >= 1 << INDEX_BITS) {
+            throw new IllegalArgumentException("Too many sites: " + n);
+        }
+
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, coordinates[2 * i]);
+            maxX = Math.max(maxX, coordinates[2 * i]);
+            minY = Math.min(minY, coordinates[2 * i + 1]);
+            maxY = Math.max(maxY, coordinates[2 * i + 1]);
+        }
+        int side = (1 << HILBERT_ORDER) - 1;
+        float scale = side / Math.max(Math.max(maxX - minX, maxY - minY), Float.MIN_NORMAL);
+
+        long[] keys = new long[n];
+        long state = SEED;
+        for (int i = 0; i < n; i++) {
+            // round: ROUNDS - 1 with probability 1/2, ROUNDS - 2 with probability 1/4...
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            int round = Math.max(ROUNDS - 1 - Long.numberOfLeadingZeros(state | 1), 0);
+
+            int hx = (int) ((coordinates[2 * i] - minX) * scale);
+            int hy = (int) ((coordinates[2 * i + 1] - minY) * scale);
+            long hilbert = hilbertIndex(Math.min(hx, side), Math.min(hy, side));
+
+            keys[i] = (long) round << (2 * HILBERT_ORDER + INDEX_BITS) | hilbert << INDEX_BITS | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[n];
+        long indexMask = (1L << INDEX_BITS) - 1;
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) (keys[i] & indexMask);
+        }
+        return order;
+    }
+
+    /**
+     * Distance of the cell (x, y) along the Hilbert curve filling the 2^HILBERT_ORDER grid
+     */
+    private static long hilbertIndex(int x, int y) {
+        long d = 0;
+        for (int s = 1 << (HILBERT_ORDER - 1); s > 0; s >>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+
+            // rotate the quadrant
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+}
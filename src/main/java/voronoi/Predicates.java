@@ -0,0 +1,272 @@
+package voronoi;
+
+/**
+ * Adaptive geometric predicates (after Shewchuk).
+ * <p>
+ * The determinants are first evaluated in double precision, without any allocation. Their sign is
+ * returned as soon as it is guaranteed by the forward error bound; otherwise the determinant is
+ * evaluated exactly with floating-point expansions, in buffers kept by each thread, which only
+ * happens for nearly degenerate configurations.
+ */
+public final class Predicates {
+    // half an ulp of 1.0
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+
+    // error bounds of the double precision evaluations
+    private static final double ORIENTATION_ERROR_BOUND = (3 + 16 * EPSILON) * EPSILON;
+    private static final double IN_CIRCLE_ERROR_BOUND = (10 + 96 * EPSILON) * EPSILON;
+
+    private Predicates() {
+    }
+
+    /**
+     * Orientation of the triangle a, b, c
+     *
+     * @return a positive value if a, b and c turn in CounterClockwise direction,
+     * a negative value if they turn in Clockwise direction, and 0 if they are collinear
+     */
+    public static double orientation(float ax, float ay, float bx, float by, float cx, float cy) {
+        double detLeft = ((double) ax - cx) * ((double) by - cy);
+        double detRight = ((double) ay - cy) * ((double) bx - cx);
+        double det = detLeft - detRight;
+
+        double detSum;
+        if (detLeft > 0) {
+            if (detRight <= 0) return det;
+            detSum = detLeft + detRight;
+        } else if (detLeft < 0) {
+            if (detRight >= 0) return det;
+            detSum = -detLeft - detRight;
+        } else {
+            return det;
+        }
+
+        double errorBound = ORIENTATION_ERROR_BOUND * detSum;
+        if (det >= errorBound || -det >= errorBound) return det;
+
+        return exactOrientation(ax, ay, bx, by, cx, cy);
+    }
+
+    /**
+     * The Delaunay criteria:
+     * position of the point d relatively to the circumscribed circle of the triangle a, b, c
+     *
+     * @return a positive value if d is strictly inside the circle (a, b and c turning in
+     * CounterClockwise direction), a negative value if it is outside, and 0 if it is on the circle
+     */
+    public static double inCircle(float ax, float ay, float bx, float by,
+                                  float cx, float cy, float dx, float dy) {
+        double adx = (double) ax - dx;
+        double bdx = (double) bx - dx;
+        double cdx = (double) cx - dx;
+        double ady = (double) ay - dy;
+        double bdy = (double) by - dy;
+        double cdy = (double) cy - dy;
+
+        double bdxcdy = bdx * cdy;
+        double cdxbdy = cdx * bdy;
+        double aLift = adx * adx + ady * ady;
+
+        double cdxady = cdx * ady;
+        double adxcdy = adx * cdy;
+        double bLift = bdx * bdx + bdy * bdy;
+
+        double adxbdy = adx * bdy;
+        double bdxady = bdx * ady;
+        double cLift = cdx * cdx + cdy * cdy;
+
+        double det = aLift * (bdxcdy - cdxbdy)
+                + bLift * (cdxady - adxcdy)
+                + cLift * (adxbdy - bdxady);
+
+        double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * aLift
+                + (Math.abs(cdxady) + Math.abs(adxcdy)) * bLift
+                + (Math.abs(adxbdy) + Math.abs(bdxady)) * cLift;
+        double errorBound = IN_CIRCLE_ERROR_BOUND * permanent;
+        if (det > errorBound || -det > errorBound) return det;
+
+        return exactInCircle(ax, ay, bx, by, cx, cy, dx, dy);
+    }
+
+    // ----------------------------------------------------------------
+    //                      Exact evaluation
+    // ----------------------------------------------------------------
+
+    // An expansion is a sum of non-overlapping doubles, stored by increasing magnitude in the first
+    // elements of an array (Shewchuk): its sign is the sign of its last element. The differences of
+    // the coordinates are exact as expansions of two doubles, and so are the sums and products of
+    // expansions, without leaving the scratch buffers of the thread.
+
+    // buffers of the exact evaluations, sized for the longest expansions of inCircle()
+    private static final class Scratch {
+        final double[] adx = new double[2];
+        final double[] ady = new double[2];
+        final double[] bdx = new double[2];
+        final double[] bdy = new double[2];
+        final double[] cdx = new double[2];
+        final double[] cdy = new double[2];
+
+        // products of two differences, and their differences or sums
+        final double[] left = new double[8];
+        final double[] right = new double[8];
+        final double[] cross = new double[16];
+        final double[] lift = new double[16];
+
+        // lift * cross for each point, and the determinant
+        final double[] term = new double[512];
+        final double[] partial = new double[1024];
+        final double[] det = new double[1536];
+
+        // buffers of multiply()
+        final double[] scaled = new double[32];
+        final double[] product = new double[512];
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private static double exactOrientation(float ax, float ay, float bx, float by, float cx, float cy) {
+        Scratch s = SCRATCH.get();
+        int acxLength = twoDiff(ax, cx, s.adx);
+        int bcyLength = twoDiff(by, cy, s.bdy);
+        int acyLength = twoDiff(ay, cy, s.ady);
+        int bcxLength = twoDiff(bx, cx, s.bdx);
+
+        int leftLength = multiply(s.adx, acxLength, s.bdy, bcyLength, s.left, s);
+        int rightLength = multiply(s.ady, acyLength, s.bdx, bcxLength, s.right, s);
+        negate(s.right, rightLength);
+        int detLength = sum(s.left, leftLength, s.right, rightLength, s.cross);
+
+        return Math.signum(s.cross[detLength - 1]);
+    }
+
+    private static double exactInCircle(float ax, float ay, float bx, float by,
+                                        float cx, float cy, float dx, float dy) {
+        Scratch s = SCRATCH.get();
+        int adxLength = twoDiff(ax, dx, s.adx);
+        int adyLength = twoDiff(ay, dy, s.ady);
+        int bdxLength = twoDiff(bx, dx, s.bdx);
+        int bdyLength = twoDiff(by, dy, s.bdy);
+        int cdxLength = twoDiff(cx, dx, s.cdx);
+        int cdyLength = twoDiff(cy, dy, s.cdy);
+
+        // aLift * (bdx * cdy - cdx * bdy)
+        int termLength = liftedCross(s.adx, adxLength, s.ady, adyLength,
+                s.bdx, bdxLength, s.cdy, cdyLength, s.cdx, cdxLength, s.bdy, bdyLength, s);
+        System.arraycopy(s.term, 0, s.det, 0, termLength);
+        int detLength = termLength;
+
+        // bLift * (cdx * ady - adx * cdy)
+        termLength = liftedCross(s.bdx, bdxLength, s.bdy, bdyLength,
+                s.cdx, cdxLength, s.ady, adyLength, s.adx, adxLength, s.cdy, cdyLength, s);
+        int partialLength = sum(s.det, detLength, s.term, termLength, s.partial);
+
+        // cLift * (adx * bdy - bdx * ady)
+        termLength = liftedCross(s.cdx, cdxLength, s.cdy, cdyLength,
+                s.adx, adxLength, s.bdy, bdyLength, s.bdx, bdxLength, s.ady, adyLength, s);
+        detLength = sum(s.partial, partialLength, s.term, termLength, s.det);
+
+        return Math.signum(s.det[detLength - 1]);
+    }
+
+    // (px² + py²) * (ux * vy - wx * zy), in s.term
+    private static int liftedCross(double[] px, int pxLength, double[] py, int pyLength,
+                                   double[] ux, int uxLength, double[] vy, int vyLength,
+                                   double[] wx, int wxLength, double[] zy, int zyLength, Scratch s) {
+        int leftLength = multiply(ux, uxLength, vy, vyLength, s.left, s);
+        int rightLength = multiply(wx, wxLength, zy, zyLength, s.right, s);
+        negate(s.right, rightLength);
+        int crossLength = sum(s.left, leftLength, s.right, rightLength, s.cross);
+
+        leftLength = multiply(px, pxLength, px, pxLength, s.left, s);
+        rightLength = multiply(py, pyLength, py, pyLength, s.right, s);
+        int liftLength = sum(s.left, leftLength, s.right, rightLength, s.lift);
+
+        return multiply(s.lift, liftLength, s.cross, crossLength, s.term, s);
+    }
+
+    // a - b as an expansion of at most two doubles (exact, the floats being exact doubles)
+    private static int twoDiff(double a, double b, double[] h) {
+        double x = a - b;
+        double bVirtual = a - x;
+        double aVirtual = x + bVirtual;
+        double error = (a - aVirtual) + (bVirtual - b);
+        int length = 0;
+        if (error != 0) h[length++] = error;
+        h[length++] = x;
+        return length;
+    }
+
+    // e + f, without zero components (fast_expansion_sum_zeroelim)
+    private static int sum(double[] e, int eLength, double[] f, int fLength, double[] h) {
+        int eIndex = 0;
+        int fIndex = 0;
+        int hLength = 0;
+        double q;
+        if (Math.abs(f[0]) > Math.abs(e[0])) {
+            q = e[eIndex++];
+        } else {
+            q = f[fIndex++];
+        }
+        while (eIndex < eLength || fIndex < fLength) {
+            double next;
+            if (fIndex == fLength || (eIndex < eLength && Math.abs(f[fIndex]) > Math.abs(e[eIndex]))) {
+                next = e[eIndex++];
+            } else {
+                next = f[fIndex++];
+            }
+            // two-sum of q and next
+            double x = q + next;
+            double bVirtual = x - q;
+            double aVirtual = x - bVirtual;
+            double error = (q - aVirtual) + (next - bVirtual);
+            if (error != 0) h[hLength++] = error;
+            q = x;
+        }
+        if (q != 0 || hLength == 0) h[hLength++] = q;
+        return hLength;
+    }
+
+    // e * b, without zero components (scale_expansion_zeroelim)
+    private static int scale(double[] e, int eLength, double b, double[] h) {
+        int hLength = 0;
+        double q = e[0] * b;
+        double error = Math.fma(e[0], b, -q);
+        if (error != 0) h[hLength++] = error;
+        for (int i = 1; i < eLength; i++) {
+            double product = e[i] * b;
+            double productError = Math.fma(e[i], b, -product);
+
+            // two-sum of q and the error of the product
+            double x = q + productError;
+            double bVirtual = x - q;
+            double aVirtual = x - bVirtual;
+            error = (q - aVirtual) + (productError - bVirtual);
+            if (error != 0) h[hLength++] = error;
+
+            // fast two-sum of the product and x (|product| >= |x|)
+            q = product + x;
+            error = x - (q - product);
+            if (error != 0) h[hLength++] = error;
+        }
+        if (q != 0 || hLength == 0) h[hLength++] = q;
+        return hLength;
+    }
+
+    // e * f: the sum of the expansions e * f[i], h being distinct from the buffers of the scratch
+    private static int multiply(double[] e, int eLength, double[] f, int fLength, double[] h, Scratch s) {
+        int hLength = scale(e, eLength, f[0], h);
+        for (int i = 1; i < fLength; i++) {
+            int scaledLength = scale(e, eLength, f[i], s.scaled);
+            int productLength = sum(h, hLength, s.scaled, scaledLength, s.product);
+            System.arraycopy(s.product, 0, h, 0, productLength);
+            hLength = productLength;
+        }
+        return hLength;
+    }
+
+    private static void negate(double[] e, int length) {
+        for (int i = 0; i < length; i++) {
+            e[i] = -e[i];
+        }
+    }
+}
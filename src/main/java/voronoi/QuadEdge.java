@@ -15,6 +15,9 @@ public class QuadEdge {
     // marker for triangle generation
     private boolean mark = false;
 
+    // index in the list of quadEdge of the triangulation (-1 if not listed)
+    private int slot = -1;
+
     /**
      * (private) constructor. Use makeEdge() to create a new QuadEdge
      *
@@ -64,6 +67,14 @@ public class QuadEdge {
         this.mark = mark;
     }
 
+    int slot() {
+        return slot;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     // ----------------------------------------------------------------
     //                      QuadEdge Navigation
     // ----------------------------------------------------------------
@@ -216,7 +227,7 @@ public class QuadEdge {
      */
     public static boolean isOnLine(QuadEdge e, PVector p) {
         // test if the vector product is zero
-        return (p.x - e.orig().x) * (p.y - e.destination().y) == (p.y - e.orig().y) * (p.x - e.destination().x);
+        return Predicates.orientation(e.orig().x, e.orig().y, e.destination().x, e.destination().y, p.x, p.y) == 0;
     }
 
     /**
@@ -238,7 +249,7 @@ public class QuadEdge {
      */
     public static boolean isCounterClockwise(PVector a, PVector b, PVector c) {
         // test the sign of the determinant of ab x cb
-        return (a.x - b.x) * (b.y - c.y) > (a.y - b.y) * (b.x - c.x);
+        return Predicates.orientation(a.x, a.y, b.x, b.y, c.x, c.y) > 0;
     }
 
     /**
@@ -251,34 +262,6 @@ public class QuadEdge {
      * @return true/false
      */
     public static boolean inCircle(PVector a, PVector b, PVector c, PVector d) {
-		/*
-		 if "d" is strictly INSIDE the circle, then
-
-		     |d² dx dy 1|
-             |a² ax ay 1|
-		 det |b² bx by 1| < 0
-		     |c² cx cy 1|
-
-		*/
-        float a2 = a.x * a.x + a.y * a.y;
-        float b2 = b.x * b.x + b.y * b.y;
-        float c2 = c.x * c.x + c.y * c.y;
-        float d2 = d.x * d.x + d.y * d.y;
-
-        float det44 = 0;
-        det44 += d2 * det33(a.x, a.y, 1, b.x, b.y, 1, c.x, c.y, 1);
-        det44 -= d.x * det33(a2, a.y, 1, b2, b.y, 1, c2, c.y, 1);
-        det44 += d.y * det33(a2, a.x, 1, b2, b.x, 1, c2, c.x, 1);
-        det44 -= 1 * det33(a2, a.x, a.y, b2, b.x, b.y, c2, c.x, c.y);
-
-        return det44 < 0;
-    }
-
-    private static float det33(float... m) {
-        float det33 = 0;
-        det33 += m[0] * (m[4] * m[8] - m[5] * m[7]);
-        det33 -= m[1] * (m[3] * m[8] - m[5] * m[6]);
-        det33 += m[2] * (m[3] * m[7] - m[4] * m[6]);
-        return det33;
+        return Predicates.inCircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y) > 0;
     }
 }
@@ -0,0 +1,107 @@
+package voronoi;
+
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clips convex Voronoi regions to an axis-aligned rectangle (Sutherland and Hodgman)
+ */
+public final class RegionClipper {
+    private final float minX;
+    private final float minY;
+    private final float maxX;
+    private final float maxY;
+
+    /**
+     * Constructor:
+     *
+     * @param minX, minY, maxX, maxY summits of the clipping rectangle
+     */
+    public RegionClipper(float minX, float minY, float maxX, float maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Clip a convex region to the rectangle
+     *
+     * @param region the vertices of the region
+     * @return the clipped region (the region itself if it lies inside the rectangle),
+     * empty if the region lies outside the rectangle
+     */
+    public List<PVector> clip(List<PVector> region) {
+        float regionMinX = Float.POSITIVE_INFINITY;
+        float regionMinY = Float.POSITIVE_INFINITY;
+        float regionMaxX = Float.NEGATIVE_INFINITY;
+        float regionMaxY = Float.NEGATIVE_INFINITY;
+        for (PVector p : region) {
+            regionMinX = Math.min(regionMinX, p.x);
+            regionMinY = Math.min(regionMinY, p.y);
+            regionMaxX = Math.max(regionMaxX, p.x);
+            regionMaxY = Math.max(regionMaxY, p.y);
+        }
+
+        // trivial reject / accept
+        if (regionMaxX <= minX || regionMinX >= maxX || regionMaxY <= minY || regionMinY >= maxY) {
+            return List.of();
+        }
+        if (regionMinX >= minX && regionMaxX <= maxX && regionMinY >= minY && regionMaxY <= maxY) {
+            return region;
+        }
+
+        List<PVector> clipped = region;
+        if (regionMinX < minX) clipped = clipX(clipped, minX, true);
+        if (regionMaxX > maxX) clipped = clipX(clipped, maxX, false);
+        if (regionMinY < minY) clipped = clipY(clipped, minY, true);
+        if (regionMaxY > maxY) clipped = clipY(clipped, maxY, false);
+        return clipped;
+    }
+
+    // keep the part of the polygon on one side of the vertical line x = limit
+    private static List<PVector> clipX(List<PVector> polygon, float limit, boolean keepAbove) {
+        if (polygon.isEmpty()) return polygon;
+
+        List<PVector> clipped = new ArrayList<>(polygon.size() + 1);
+        PVector previous = polygon.get(polygon.size() - 1);
+        boolean previousInside = (previous.x >= limit) == keepAbove;
+        for (PVector current : polygon) {
+            boolean currentInside = (current.x >= limit) == keepAbove;
+            if (currentInside != previousInside) {
+                float t = (limit - previous.x) / (current.x - previous.x);
+                clipped.add(new PVector(limit, previous.y + t * (current.y - previous.y)));
+            }
+            if (currentInside) {
+                clipped.add(current);
+            }
+            previous = current;
+            previousInside = currentInside;
+        }
+        return clipped;
+    }
+
+    // keep the part of the polygon on one side of the horizontal line y = limit
+    private static List<PVector> clipY(List<PVector> polygon, float limit, boolean keepAbove) {
+        if (polygon.isEmpty()) return polygon;
+
+        List<PVector> clipped = new ArrayList<>(polygon.size() + 1);
+        PVector previous = polygon.get(polygon.size() - 1);
+        boolean previousInside = (previous.y >= limit) == keepAbove;
+        for (PVector current : polygon) {
+            boolean currentInside = (current.y >= limit) == keepAbove;
+            if (currentInside != previousInside) {
+                float t = (limit - previous.y) / (current.y - previous.y);
+                clipped.add(new PVector(previous.x + t * (current.x - previous.x), limit));
+            }
+            if (currentInside) {
+                clipped.add(current);
+            }
+            previous = current;
+            previousInside = currentInside;
+        }
+        return clipped;
+    }
+}
@@ -0,0 +1,240 @@
+package voronoi;
+
+import org.junit.jupiter.api.Test;
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Removals and moves of sites against a full rebuild of the triangulation from the remaining sites,
+ * in the same bounding box
+ */
+class DelaunayTest {
+    private static final int CHECK_EVERY = 25;
+
+    @Test
+    void removePoint() {
+        Edited edited = new Edited(Triangulations.random(1000, 1));
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 900; i++) {
+            edited.remove(random.nextInt(edited.sites.size()));
+            if (i % CHECK_EVERY == 0) edited.assertSameAsRebuild();
+        }
+        edited.assertSameAsRebuild();
+    }
+
+    @Test
+    void removeEveryPoint() {
+        Edited edited = new Edited(Triangulations.random(100, 3));
+        while (!edited.sites.isEmpty()) {
+            edited.remove(edited.sites.size() / 2);
+        }
+        assertTrue(edited.delaunay.computeTriangles().isEmpty());
+        assertTrue(edited.delaunay.computeVoronoi().isEmpty());
+
+        // and insert them again
+        for (PVector site : Triangulations.random(100, 3)) {
+            edited.insert(site);
+        }
+        edited.assertSameAsRebuild();
+    }
+
+    @Test
+    void movePointWithinTheBoundingBox() {
+        Edited edited = new Edited(Triangulations.random(1000, 4));
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 500; i++) {
+            PVector to = new PVector(random.nextFloat(Triangulations.SIZE), random.nextFloat(Triangulations.SIZE));
+            edited.move(random.nextInt(edited.sites.size()), to);
+            if (i % CHECK_EVERY == 0) edited.assertSameAsRebuild();
+        }
+        edited.assertSameAsRebuild();
+    }
+
+    @Test
+    void movePointGrowingTheBoundingBox() {
+        Edited edited = new Edited(Triangulations.random(500, 6));
+        SplittableRandom random = new SplittableRandom(7);
+        float extent = Triangulations.SIZE;
+        for (int i = 0; i < 500; i++) {
+            // every fifth move lands outside of the sites so far
+            PVector to;
+            if (i % 5 == 0) {
+                extent *= 1.05f;
+                float x = random.nextBoolean() ? -random.nextFloat(extent) : Triangulations.SIZE + random.nextFloat(extent);
+                to = new PVector(x, random.nextFloat(-extent, extent));
+            } else {
+                to = new PVector(random.nextFloat(Triangulations.SIZE), random.nextFloat(Triangulations.SIZE));
+            }
+            edited.move(random.nextInt(edited.sites.size()), to);
+            edited.assertSameAsRebuild();
+        }
+    }
+
+    @Test
+    void insertPointGrowingTheBoundingBox() {
+        Edited edited = new Edited(List.of());
+        for (PVector site : Triangulations.random(300, 8)) {
+            // sites further and further away, along a spiral
+            float radius = 1 + edited.sites.size() * edited.sites.size();
+            double angle = edited.sites.size() * .7;
+            edited.insert(new PVector(site.x + radius * (float) Math.cos(angle), site.y + radius * (float) Math.sin(angle)));
+            edited.assertSameAsRebuild();
+        }
+    }
+
+    @Test
+    void insertPointFarAway() {
+        // the corners move so far that some of their triangles turn over
+        SplittableRandom random = new SplittableRandom(12);
+        for (int i = 0; i < 200; i++) {
+            Edited edited = new Edited(List.of());
+            int count = random.nextInt(3, 30);
+            for (int j = 0; j < count; j++) {
+                edited.insert(new PVector(random.nextFloat(1), random.nextFloat(1)));
+            }
+            for (int j = 0; j < 5; j++) {
+                float distance = (float) Math.pow(10, random.nextInt(1, 7));
+                edited.insert(switch (random.nextInt(4)) {
+                    case 0 -> new PVector(random.nextFloat(1), -distance);
+                    case 1 -> new PVector(distance, random.nextFloat(1));
+                    case 2 -> new PVector(-distance, random.nextFloat(1));
+                    default -> new PVector(random.nextFloat(1), distance);
+                });
+                edited.assertSameAsRebuild();
+            }
+        }
+    }
+
+    @Test
+    void divideAndConquerAboveForkThreshold() {
+        // enough sites for the halves to be triangulated in parallel, then merged
+        for (int count : new int[]{20000, 50000}) {
+            assertTrue(count > DivideAndConquer.FORK_THRESHOLD);
+            List<PVector> sites = Triangulations.random(count, count);
+            Delaunay expected = new Delaunay();
+            expected.insertAll(sites);
+            Delaunay actual = Delaunay.divideAndConquer(sites, ForkJoinPool.commonPool());
+
+            assertEquals(Triangulations.canonicalTriangles(expected.computeTriangles()),
+                    Triangulations.canonicalTriangles(actual.computeTriangles()));
+            assertEquals(Triangulations.canonicalRegions(expected.computeVoronoi()),
+                    Triangulations.canonicalRegions(actual.computeVoronoi()));
+        }
+    }
+
+    @Test
+    void editDivideAndConquer() {
+        List<PVector> sites = Triangulations.random(2000, 9);
+        Delaunay delaunay = Delaunay.divideAndConquer(sites, ForkJoinPool.commonPool());
+
+        // the regions are in BRIO order, as with insertAll()
+        float[] coordinates = new float[2 * sites.size()];
+        for (int i = 0; i < sites.size(); i++) {
+            coordinates[2 * i] = sites.get(i).x;
+            coordinates[2 * i + 1] = sites.get(i).y;
+        }
+        List<PVector> regionSites = new ArrayList<>();
+        for (int i : InsertionOrder.brio(coordinates)) {
+            regionSites.add(sites.get(i));
+        }
+
+        Edited edited = new Edited(regionSites, delaunay);
+        SplittableRandom random = new SplittableRandom(10);
+        for (int i = 0; i < 200; i++) {
+            edited.remove(random.nextInt(edited.sites.size()));
+            edited.move(random.nextInt(edited.sites.size()),
+                    new PVector(random.nextFloat(-100, Triangulations.SIZE + 100), random.nextFloat(Triangulations.SIZE)));
+            if (i % CHECK_EVERY == 0) edited.assertSameAsRebuild();
+        }
+        edited.assertSameAsRebuild();
+    }
+
+    @Test
+    void refusedEdits() {
+        List<PVector> sites = Triangulations.random(10, 11);
+        Delaunay delaunay = new Delaunay();
+        delaunay.insertAll(sites);
+
+        assertFalse(delaunay.removePoint(new PVector(-1, -1)));
+        assertFalse(delaunay.movePoint(new PVector(-1, -1), new PVector(1, 1)));
+        assertFalse(delaunay.movePoint(sites.get(0), sites.get(1)));
+        assertTrue(delaunay.movePoint(sites.get(0), sites.get(0)));
+        assertEquals(10, delaunay.computeVoronoi().size());
+    }
+
+    /**
+     * A triangulation edited site by site, along with the sites of its regions (in the order of
+     * the regions) and the extent of every position inserted so far
+     */
+    private static final class Edited {
+        private final Delaunay delaunay;
+        private final List<PVector> sites = new ArrayList<>();
+        private float minX = Float.MAX_VALUE;
+        private float minY = Float.MAX_VALUE;
+        private float maxX = -Float.MAX_VALUE;
+        private float maxY = -Float.MAX_VALUE;
+
+        Edited(List<PVector> sites) {
+            this(sites, new Delaunay());
+            for (PVector site : sites) {
+                delaunay.insertPoint(site);
+            }
+        }
+
+        Edited(List<PVector> sites, Delaunay delaunay) {
+            this.delaunay = delaunay;
+            for (PVector site : sites) {
+                this.sites.add(site);
+                extend(site);
+            }
+        }
+
+        void insert(PVector site) {
+            delaunay.insertPoint(site);
+            sites.add(site);
+            extend(site);
+        }
+
+        // the region of the last site takes the place of the removed one
+        void remove(int index) {
+            assertTrue(delaunay.removePoint(sites.get(index)));
+            PVector last = sites.remove(sites.size() - 1);
+            if (index < sites.size()) sites.set(index, last);
+        }
+
+        void move(int index, PVector to) {
+            if (sites.contains(to)) return;
+            assertTrue(delaunay.movePoint(sites.get(index), to));
+            sites.set(index, to);
+            extend(to);
+        }
+
+        private void extend(PVector p) {
+            minX = Math.min(minX, p.x);
+            minY = Math.min(minY, p.y);
+            maxX = Math.max(maxX, p.x);
+            maxY = Math.max(maxY, p.y);
+        }
+
+        // same triangles, and same regions in the same order as the sites inserted one by one
+        void assertSameAsRebuild() {
+            Delaunay rebuilt = new Delaunay();
+            rebuilt.setBoundingBox(minX, minY, maxX, maxY);
+            for (PVector site : sites) {
+                rebuilt.insertPoint(site);
+            }
+
+            assertEquals(Triangulations.canonicalTriangles(rebuilt.computeTriangles()),
+                    Triangulations.canonicalTriangles(delaunay.computeTriangles()));
+            Triangulations.assertSameRegions(rebuilt.computeVoronoi(), delaunay.computeVoronoi());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package voronoi;
+
+import org.junit.jupiter.api.Test;
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Parity of {@link IndexedDelaunay} with {@link Delaunay}: both backends have to produce the same
+ * triangles and the same Voronoi regions, in the same order, for the same input.
+ */
+class IndexedDelaunayTest {
+
+    @Test
+    void randomSites() {
+        for (int count : new int[]{1, 2, 3, 10, 100, 1000, 10000}) {
+            assertParity(Triangulations.random(count, count));
+        }
+    }
+
+    @Test
+    void gridSites() {
+        assertParity(Triangulations.grid(10, 10, 1));
+        assertParity(Triangulations.grid(90, 90, 2));
+        assertParity(Triangulations.grid(1, 50, 3));
+    }
+
+    @Test
+    void collinearSites() {
+        List<PVector> sites = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sites.add(new PVector(3 * i, 2 * i + 5));
+        }
+        assertParity(sites);
+
+        // a few sites off the line
+        sites.addAll(Triangulations.random(10, 4));
+        assertParity(sites);
+    }
+
+    @Test
+    void duplicateSites() {
+        List<PVector> sites = Triangulations.random(500, 5);
+        List<PVector> duplicated = new ArrayList<>(sites);
+        for (PVector site : sites.subList(0, 100)) {
+            duplicated.add(new PVector(site.x, site.y));
+        }
+        assertParity(duplicated);
+    }
+
+    @Test
+    void pointByPointInsertion() {
+        List<PVector> sites = Triangulations.random(1000, 6);
+        assertPointByPointParity(sites);
+
+        // from the centre outwards, so that the bounding box grows during the insertion
+        PVector center = new PVector(Triangulations.SIZE / 2, Triangulations.SIZE / 2);
+        sites.sort(Comparator.comparingDouble(site -> PVector.dist(site, center)));
+        assertPointByPointParity(sites);
+    }
+
+    @Test
+    void growingExtent() {
+        // each site of a spiral grows the bounding box, whose corners move during the insertion
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            List<PVector> sites = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                float angle = 0.5f * i + random.nextFloat();
+                float radius = (1 + i) * (1 + random.nextFloat());
+                sites.add(new PVector(radius * (float) Math.cos(angle), radius * (float) Math.sin(angle)));
+            }
+            assertPointByPointParity(sites);
+        }
+    }
+
+    @Test
+    void siteFarAway() {
+        // the corners move so far that some of their triangles turn over, and are triangulated again
+        SplittableRandom random = new SplittableRandom(12);
+        for (int i = 0; i < 200; i++) {
+            List<PVector> sites = new ArrayList<>();
+            int count = random.nextInt(3, 30);
+            for (int j = 0; j < count; j++) {
+                sites.add(new PVector(random.nextFloat(1), random.nextFloat(1)));
+            }
+            float distance = (float) Math.pow(10, random.nextInt(1, 7));
+            sites.add(new PVector(random.nextFloat(1), random.nextBoolean() ? distance : -distance));
+            assertPointByPointParity(sites);
+        }
+    }
+
+    private static void assertPointByPointParity(List<PVector> sites) {
+        Delaunay delaunay = new Delaunay();
+        IndexedDelaunay indexed = new IndexedDelaunay();
+        for (PVector site : sites) {
+            delaunay.insertPoint(site);
+            indexed.insertPoint(site);
+        }
+        assertParity(delaunay, indexed);
+    }
+
+    private static void assertParity(List<PVector> sites) {
+        Delaunay delaunay = new Delaunay();
+        delaunay.insertAll(sites);
+        IndexedDelaunay indexed = new IndexedDelaunay(sites.size());
+        indexed.insertAll(sites);
+        assertParity(delaunay, indexed);
+    }
+
+    private static void assertParity(Delaunay delaunay, IndexedDelaunay indexed) {
+        assertEquals(Triangulations.canonicalTriangles(delaunay.computeTriangles()),
+                Triangulations.canonicalTriangles(indexed.computeTriangles()));
+        assertEquals(Triangulations.canonicalRegions(delaunay.computeVoronoi()),
+                Triangulations.canonicalRegions(indexed.computeVoronoi()));
+        assertPrimitiveOutput(indexed);
+    }
+
+    // the primitive arrays hold the same triangles and regions as the objects, in the same order
+    private static void assertPrimitiveOutput(IndexedDelaunay indexed) {
+        List<PVector[]> triangles = indexed.computeTriangles();
+        float[] triangleCoordinates = indexed.computeTriangleCoordinates();
+        assertEquals(6 * triangles.size(), triangleCoordinates.length);
+        for (int i = 0; i < triangles.size(); i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(triangles.get(i)[j].x, triangleCoordinates[6 * i + 2 * j]);
+                assertEquals(triangles.get(i)[j].y, triangleCoordinates[6 * i + 2 * j + 1]);
+            }
+        }
+
+        List<List<PVector>> voronoi = indexed.computeVoronoi();
+        IndexedDelaunay.Regions regions = indexed.computeRegions();
+        assertEquals(voronoi.size(), regions.size());
+        for (int i = 0; i < voronoi.size(); i++) {
+            List<PVector> region = voronoi.get(i);
+            assertEquals(region.size(), regions.offsets[i + 1] - regions.offsets[i]);
+            for (int k = 0; k < region.size(); k++) {
+                assertEquals(region.get(k).x, regions.coordinates[2 * (regions.offsets[i] + k)]);
+                assertEquals(region.get(k).y, regions.coordinates[2 * (regions.offsets[i] + k) + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package voronoi;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Signs of the adaptive predicates against the determinants evaluated with BigDecimal, on nearly
+ * degenerate configurations where the double precision stage cannot decide
+ */
+class PredicatesTest {
+    private static final int COUNT = 100_000;
+
+    @Test
+    void orientationOfNearlyCollinearPoints() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < COUNT; i++) {
+            float[] p = nearlyCollinear(random, 3);
+            assertEquals(referenceOrientation(p[0], p[1], p[2], p[3], p[4], p[5]),
+                    Math.signum(Predicates.orientation(p[0], p[1], p[2], p[3], p[4], p[5])));
+        }
+    }
+
+    @Test
+    void inCircleOfNearlyCocircularPoints() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < COUNT; i++) {
+            float[] p = nearlyCocircular(random);
+            assertEquals(referenceInCircle(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7]),
+                    Math.signum(Predicates.inCircle(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7])));
+        }
+    }
+
+    @Test
+    void exactlyDegenerateConfigurations() {
+        assertEquals(0.0, Predicates.orientation(0, 0, 1, 1, 1e20f, 1e20f));
+        assertEquals(0.0, Predicates.orientation(1e-20f, 1e-20f, 3, 3, 1e20f, 1e20f));
+        assertEquals(0.0, Predicates.inCircle(0, 0, 1, 0, 1, 1, 0, 1));
+        assertEquals(0.0, Predicates.inCircle(1e-30f, 0, 1e30f, 0, 1e30f, 1e30f, 1e-30f, 1e30f));
+    }
+
+    @Test
+    void coordinatesOfVeryDifferentMagnitudes() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < COUNT; i++) {
+            float[] p = new float[8];
+            for (int j = 0; j < p.length; j++) {
+                p[j] = (float) (random.nextDouble(-1, 1) * Math.pow(2, random.nextInt(-60, 60)));
+            }
+            assertEquals(referenceOrientation(p[0], p[1], p[2], p[3], p[4], p[5]),
+                    Math.signum(Predicates.orientation(p[0], p[1], p[2], p[3], p[4], p[5])));
+            assertEquals(referenceInCircle(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7]),
+                    Math.signum(Predicates.inCircle(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7])));
+        }
+    }
+
+    // points of the diagonal of a random square, then moved by a few ulps
+    private static float[] nearlyCollinear(SplittableRandom random, int count) {
+        float x0 = random.nextFloat(-1000, 1000);
+        float y0 = random.nextFloat(-1000, 1000);
+        float[] p = new float[2 * count];
+        for (int i = 0; i < count; i++) {
+            float t = random.nextFloat(-1000, 1000);
+            p[2 * i] = nudge(random, x0 + t);
+            p[2 * i + 1] = nudge(random, y0 + t);
+        }
+        return p;
+    }
+
+    // corners of a random rectangle (on its circumscribed circle), then moved by a few ulps
+    private static float[] nearlyCocircular(SplittableRandom random) {
+        float x1 = random.nextFloat(-1000, 1000);
+        float x2 = random.nextFloat(-1000, 1000);
+        float y1 = random.nextFloat(-1000, 1000);
+        float y2 = random.nextFloat(-1000, 1000);
+        return new float[]{
+                nudge(random, x1), nudge(random, y1),
+                nudge(random, x2), nudge(random, y1),
+                nudge(random, x2), nudge(random, y2),
+                nudge(random, x1), nudge(random, y2)};
+    }
+
+    private static float nudge(SplittableRandom random, float value) {
+        int ulps = random.nextInt(-2, 3);
+        for (; ulps > 0; ulps--) value = Math.nextUp(value);
+        for (; ulps < 0; ulps++) value = Math.nextDown(value);
+        return value;
+    }
+
+    private static double referenceOrientation(float ax, float ay, float bx, float by, float cx, float cy) {
+        BigDecimal acx = exact(ax).subtract(exact(cx));
+        BigDecimal bcx = exact(bx).subtract(exact(cx));
+        BigDecimal acy = exact(ay).subtract(exact(cy));
+        BigDecimal bcy = exact(by).subtract(exact(cy));
+        return acx.multiply(bcy).subtract(acy.multiply(bcx)).signum();
+    }
+
+    private static double referenceInCircle(float ax, float ay, float bx, float by,
+                                            float cx, float cy, float dx, float dy) {
+        BigDecimal adx = exact(ax).subtract(exact(dx));
+        BigDecimal bdx = exact(bx).subtract(exact(dx));
+        BigDecimal cdx = exact(cx).subtract(exact(dx));
+        BigDecimal ady = exact(ay).subtract(exact(dy));
+        BigDecimal bdy = exact(by).subtract(exact(dy));
+        BigDecimal cdy = exact(cy).subtract(exact(dy));
+
+        BigDecimal aLift = adx.multiply(adx).add(ady.multiply(ady));
+        BigDecimal bLift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+        BigDecimal cLift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+
+        return aLift.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+                .add(bLift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+                .add(cLift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))))
+                .signum();
+    }
+
+    private static BigDecimal exact(float value) {
+        return new BigDecimal(value);
+    }
+}
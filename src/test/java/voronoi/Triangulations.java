@@ -0,0 +1,118 @@
+package voronoi;
+
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inputs and canonical forms shared by the triangulation tests
+ */
+final class Triangulations {
+    static final float SIZE = 2025;
+
+    private Triangulations() {
+    }
+
+    static List<PVector> random(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<PVector> sites = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sites.add(new PVector(random.nextFloat(SIZE), random.nextFloat(SIZE)));
+        }
+        return sites;
+    }
+
+    // integer grid of columns x rows sites, shuffled
+    static List<PVector> grid(int columns, int rows, long seed) {
+        List<PVector> sites = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns; i++) {
+            for (int j = 0; j < rows; j++) {
+                sites.add(new PVector(i, j));
+            }
+        }
+        Collections.shuffle(sites, new Random(seed));
+        return sites;
+    }
+
+    /**
+     * Triangles as sorted strings, each one starting from its smallest vertex (keeping its
+     * orientation), so that two triangulations can be compared whatever their edge order
+     */
+    static List<String> canonicalTriangles(List<PVector[]> triangles) {
+        List<String> canonical = new ArrayList<>(triangles.size());
+        for (PVector[] triangle : triangles) {
+            int first = 0;
+            for (int i = 1; i < 3; i++) {
+                if (compare(triangle[i], triangle[first]) < 0) first = i;
+            }
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < 3; i++) {
+                PVector p = triangle[(first + i) % 3];
+                key.append(p.x).append(',').append(p.y).append(' ');
+            }
+            canonical.add(key.toString());
+        }
+        Collections.sort(canonical);
+        return canonical;
+    }
+
+    /**
+     * Regions as strings starting from their smallest vertex, in the order of the list, so that
+     * two lists of regions can be compared whatever the vertex each region starts from
+     */
+    static List<String> canonicalRegions(List<List<PVector>> regions) {
+        List<String> canonical = new ArrayList<>(regions.size());
+        for (List<PVector> region : regions) {
+            int first = 0;
+            for (int i = 1; i < region.size(); i++) {
+                if (compare(region.get(i), region.get(first)) < 0) first = i;
+            }
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < region.size(); i++) {
+                PVector p = region.get((first + i) % region.size());
+                key.append(p.x).append(',').append(p.y).append(' ');
+            }
+            canonical.add(key.toString());
+        }
+        return canonical;
+    }
+
+    /**
+     * Same regions in the same order, whatever the vertex each one starts from, the circumcenters
+     * being the same up to the rounding of their computation from another vertex of their face
+     */
+    static void assertSameRegions(List<List<PVector>> expected, List<List<PVector>> actual) {
+        assertEquals(expected.size(), actual.size(), "number of regions");
+        for (int k = 0; k < expected.size(); k++) {
+            List<PVector> a = expected.get(k);
+            List<PVector> b = actual.get(k);
+            assertEquals(a.size(), b.size(), "size of region " + k);
+
+            boolean same = false;
+            for (int offset = 0; offset < b.size() && !same; offset++) {
+                same = true;
+                for (int i = 0; i < a.size() && same; i++) {
+                    same = close(a.get(i), b.get((i + offset) % b.size()));
+                }
+            }
+            assertTrue(same, "region " + k + ": expected " + a + " but was " + b);
+        }
+    }
+
+    private static boolean close(PVector a, PVector b) {
+        float tolerance = 1e-4f * Math.max(1, Math.max(Math.abs(a.x), Math.abs(a.y)));
+        return Math.abs(a.x - b.x) <= tolerance && Math.abs(a.y - b.y) <= tolerance;
+    }
+
+    private static int compare(PVector a, PVector b) {
+        int x = Float.compare(a.x, b.x);
+        return x != 0 ? x : Float.compare(a.y, b.y);
+    }
+}